@@ -1,6 +1,11 @@
 package com.jareid.openaiapp;
 
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+
 import com.jareid.openaiapp.api.APIHandler;
+import com.jareid.openaiapp.api.input.FileInputRequest;
 import com.jareid.openaiapp.ui.UserInterfaceScreen;
 
 /**
@@ -15,6 +20,7 @@ import com.jareid.openaiapp.ui.UserInterfaceScreen;
  * '--ui' or '-u' to run in swing UI mode.
  * '--javafx' or '-j' to run in JavaFX UI mode.
  * '--swing' or '-s' to explicitly invoke Swing UI mode, overriding other arguments.
+ * '--input &lt;path&gt;' or '-i &lt;path&gt;' to ask the first question about a file of any size.
  *
  * <p> For instance, 'java -jar openai-cli.jar --javafx' would launch the application in JavaFX UI mode.
  *
@@ -35,25 +41,48 @@ public class Main {
      */
     public static void main(String[] args) {
         boolean runInUIMode = true;
+        String inputFile = null;
 
-        for (String arg : args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
             if (arg.equals("--ui") || arg.equals("-u")) {
                 runInUIMode = true;
             } else if (arg.equals("--cli") || arg.equalsIgnoreCase("-c")) {
                 runInUIMode = false;
+            } else if ((arg.equals("--input") || arg.equals("-i")) && i + 1 < args.length) {
+                inputFile = args[++i];
             }
         }
 
+        if (inputFile != null && !isRegularFile(inputFile)) {
+            System.out.println( "File not found: " + inputFile );
+            return;
+        }
+
         try {
             if (runInUIMode) {  //Run in JavaFX UI mode
-                new UserInterfaceScreen( new APIHandler() );
+                new UserInterfaceScreen( new APIHandler(), inputFile == null ? "" : FileInputRequest.format( inputFile, "" ) );
             } else {
                 APIHandler api = new APIHandler();
-                api.start();
+                api.start( inputFile );
             }
         } catch (RuntimeException runtimeException) {
             System.out.println( "Argggggh, you killed me because of the following reason: " + runtimeException.getMessage() );
             runtimeException.printStackTrace();
         }
     }
+
+    /**
+     * Checks the file given with '--input' before anything is started.
+     *
+     * @param path the path given on the command line
+     * @return true if the path names an existing regular file
+     */
+    private static boolean isRegularFile(String path) {
+        try {
+            return Files.isRegularFile( Paths.get( path ) );
+        } catch (InvalidPathException invalidPathException) {
+            return false;
+        }
+    }
 }
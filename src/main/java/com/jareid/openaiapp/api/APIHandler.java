@@ -5,10 +5,18 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.jareid.openaiapp.api.backend.BackendRouter;
+import com.jareid.openaiapp.api.input.FileChunker;
+import com.jareid.openaiapp.api.input.FileInputRequest;
+import com.jareid.openaiapp.api.input.MapReduceProcessor;
 import com.jareid.openaiapp.utils.Pair;
+import com.jareid.openaiapp.utils.PropertyUtils;
 import com.theokanning.openai.service.OpenAiService;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatMessage;
@@ -18,19 +26,28 @@ import org.apache.commons.lang3.StringUtils;
 /**
  * The {@code CommandLineInterface} class represents a command line interface that interacts with an OpenAI GPT model.
  * It utilizes OpenAI's {@link OpenAiService} to generate text completions based on user input,
- * and provides a command line interface for users to interact with the GPT model.
+ * routed over one or more OpenAI-compatible backends by a {@link BackendRouter}, and provides a command line interface for users to interact with the GPT model.
  * The class maintains a history of interactions which is serialized and deserialized from a file, 
  * and also contains utility methods for handling and writing code blocks present in chat history.
  *
  * <p> The conversation history with the GPT model is persisted in a file named {@code history}.
  * Any code block returned by the GPT model is extracted and saved in a separate file.
  *
- * <p> Please note that the class is not thread-safe. If multiple threads interact with a {@code CommandLineInterface} instance, 
- * it must be synchronized externally.
+ * <p> Identical concurrent requests, i.e. the same model, messages and token limit, share a single call to
+ * the backend through {@link InFlightRequests}.
+ *
+ * <p> Input of the form {@code @path question} asks the question about a file of any size, which is split
+ * into chunks and processed in parallel by a {@link MapReduceProcessor}.
+ *
+ * <p> Every request runs on a background thread with a deadline and can be abandoned through the returned
+ * {@link RequestFuture}; in the command line interface Ctrl-C cancels the current request only.
+ * Every access to the chat history, in memory and on file, is synchronized on the handler; the options are not
+ * and should only be changed from one thread.
  *
  * <p> This class requires the OpenAI API key to be provided via the {@code API_KEY} field.
  *
  * @author Jamie Reid
+ * @see BackendRouter
  * @see OpenAiService
  * @see ChatCompletionRequest
  * @see ChatMessage
@@ -43,6 +60,11 @@ public class APIHandler {
     private static String HISTORY_FILE_NAME = null;
     private static String CODE_FILE_DATA_FORMAT = null;
     private static String OPENAICLI_CMD_HEADER = null;
+    private static Duration REQUEST_TIMEOUT = null;
+    private static Duration INPUT_TIMEOUT = null;
+    private static int INPUT_CHUNK_TOKENS = 0;
+    private static int INPUT_MAX_TOKENS = 0;
+    private static int INPUT_CONCURRENCY = 0;
 
     /**
      * A value that represents the regular expression in a ChatMessage response
@@ -52,18 +74,48 @@ public class APIHandler {
     /**
      * A field containing the ChatGPT chat history.
      */
-    private List< Pair< ChatMessage > > history;
+    private final List< Pair< ChatMessage > > history;
+
+    /**
+     * The router which sends requests to the configured OpenAI-compatible backends
+     */
+    private final BackendRouter router;
 
     /**
-     * The OpenAI API Service
+     * The chat completion calls in flight, shared between identical concurrent requests.
      */
-    private final OpenAiService service;
+    private final InFlightRequests< List< Object >, ChatMessage > inFlightRequests = new InFlightRequests<>();
 
     /**
      * A field to control the options of the ChatGPT controller.
      */
     private final HashMap<String, Boolean> options;
 
+    /**
+     * The threads running requests, idle threads are discarded after a minute.
+     */
+    private final ExecutorService requestExecutor = Executors.newCachedThreadPool( daemonThreadFactory( "openaicli-request-" ) );
+
+    /**
+     * The timer which cancels requests once their deadline has passed.
+     */
+    private final ScheduledThreadPoolExecutor deadlineScheduler = new ScheduledThreadPoolExecutor( 1, daemonThreadFactory( "openaicli-deadline-" ) );
+
+    /**
+     * The request the command line interface is currently waiting for, cancelled by Ctrl-C.
+     */
+    private volatile RequestFuture< ChatMessage > currentRequest;
+
+    /**
+     * The scanner reading user input from the command line.
+     */
+    private Scanner scanner;
+
+    /**
+     * The file the next question on the command line is about, given with {@code --input}.
+     */
+    private String pendingInputFile;
+
     /**
      * The default constructor that initializes the OpenAiService and chat history.
      */
@@ -73,9 +125,6 @@ public class APIHandler {
             Properties properties = new Properties();
             properties.load( getClass().getClassLoader( ).getResourceAsStream( "secret.properties" ) );
 
-            String apiKey = properties.getProperty("openai.api.key");
-            if ( StringUtils.isEmpty( apiKey ) ) throw new IllegalArgumentException( "OpenAI API key must be set in config.properties" );
-
             // Load non-secret properties
             properties.load( getClass().getClassLoader( ).getResourceAsStream( "config.properties" ) );
 
@@ -91,7 +140,15 @@ public class APIHandler {
             OPENAICLI_CMD_HEADER = (String) properties.get( "openaicli.commandline.header" );
             if ( StringUtils.isEmpty( OPENAICLI_CMD_HEADER ) ) OPENAICLI_CMD_HEADER = "Open AI CLI --->";
 
-            service = new OpenAiService(apiKey, Duration.ofSeconds(60));
+            REQUEST_TIMEOUT = Duration.ofSeconds( PropertyUtils.getIntProperty( properties, "openaicli.request.timeoutSeconds", 60 ) );
+            INPUT_TIMEOUT = Duration.ofSeconds( PropertyUtils.getIntProperty( properties, "openaicli.input.timeoutSeconds", 600 ) );
+            INPUT_CHUNK_TOKENS = PropertyUtils.getIntProperty( properties, "openaicli.input.chunkTokens", 3000 );
+            INPUT_MAX_TOKENS = PropertyUtils.getIntProperty( properties, "openaicli.input.maxTokens", 512 );
+            INPUT_CONCURRENCY = PropertyUtils.getIntProperty( properties, "openaicli.input.concurrency", 4 );
+
+            deadlineScheduler.setRemoveOnCancelPolicy( true );
+
+            router = BackendRouter.fromProperties( properties );
 
             history = new ArrayList<>(250);
 
@@ -105,6 +162,21 @@ public class APIHandler {
         }
     }
 
+    /**
+     * Creates a thread factory for daemon threads, so that pending requests never keep the application alive.
+     *
+     * @param namePrefix the prefix of the thread names
+     * @return the thread factory
+     */
+    private static ThreadFactory daemonThreadFactory( String namePrefix ) {
+        AtomicInteger threadNumber = new AtomicInteger( 1 );
+        return runnable -> {
+            Thread thread = new Thread( runnable, namePrefix + threadNumber.getAndIncrement() );
+            thread.setDaemon( true );
+            return thread;
+        };
+    }
+
     private Boolean getBooleanProperty(Properties properties, String key) {
         Object value = properties.get(key);
         if (value instanceof String) {
@@ -140,7 +212,7 @@ public class APIHandler {
      * @param input   The input {@link ChatMessage} representing the message received.
      * @param output  The output {@link ChatMessage} representing the response or reply.
      */
-    private void addAndRotateHistory( ChatMessage input, ChatMessage output ) {
+    private synchronized void addAndRotateHistory( ChatMessage input, ChatMessage output ) {
         if (history.size() == 250) {
             history.remove(0);
         }
@@ -154,14 +226,14 @@ public class APIHandler {
      * @return A {@link Pair} containing the user's {@link ChatMessage} as the first element and ChatGPT's response as the second.
      * @throws IllegalArgumentException if the provided ID is 250 or greater.
      */
-    public Pair< ChatMessage > returnHistory(int id) {
+    public synchronized Pair< ChatMessage > returnHistory(int id) {
         if (id >= 250) {
             throw new IllegalArgumentException("Chat History only contains a maximum of 125 user and 125 ChatGPT messages");
         }
         return history.get(id);
     }
 
-    public List< ChatMessage > returnHistoryAsList() {
+    public synchronized List< ChatMessage > returnHistoryAsList() {
         List< ChatMessage > list = new ArrayList<>();
         for (Pair< ChatMessage > pair : history ) list.addAll( pair.convertToList() );
         return list;
@@ -173,7 +245,7 @@ public class APIHandler {
      * @param failMessage the failure message
      * @param exception the thrown exception
      */
-    private static void handleException(String failMessage, Exception exception) {
+    private static void handleException(String failMessage, Throwable exception) {
         System.out.println(OPENAICLI_CMD_HEADER + "Oooops, " + failMessage + "... Reason: " + exception.getMessage());
         System.out.println(OPENAICLI_CMD_HEADER + " - - - - - - - Stacktrace start - - - - - - - ");
         exception.printStackTrace();
@@ -184,7 +256,7 @@ public class APIHandler {
      * A method to read chat history from a file.
      */
     @SuppressWarnings("unchecked")
-    private void readHistoryFromFile() throws RuntimeException {
+    private synchronized void readHistoryFromFile() throws RuntimeException {
         File historyFile = createNewHistoryFile();
         if ( historyFile.length() != 0 ) {
             try ( ObjectInputStream inputStream = new ObjectInputStream( new FileInputStream( historyFile ) ) ) {
@@ -199,7 +271,7 @@ public class APIHandler {
     /**
      * A method to write chat history to a file.
      */
-    private void writeHistoryToFile() {
+    private synchronized void writeHistoryToFile() {
         try ( ObjectOutputStream outputStream = new ObjectOutputStream( new FileOutputStream( HISTORY_FILE_NAME ) ) ) {
             history.forEach( message -> {
                 try {
@@ -214,11 +286,19 @@ public class APIHandler {
         }
     }
 
+    /**
+     * A method to clear the chat history and start a new history file, keeping the old one renamed with the date.
+     */
+    private synchronized void wipeHistory() {
+        history.clear();
+        clearHistoryToFile();
+    }
+
     /**
      * A method to write chat history to a file.
      * TODO: rename old history with date.
      * */
-    private void clearHistoryToFile() {
+    private synchronized void clearHistoryToFile() {
         renameHistoryFile();
         createNewHistoryFile();
         writeHistoryToFile();
@@ -329,39 +409,64 @@ public class APIHandler {
 
     /**
      * A method to write the code from a ChatMessage to a file.
+     * If the current request is cancelled while writing, the partially written file is deleted.
      *
      * @param message the chat message
      */
     private void writeCodeToFile( ChatMessage message ) throws RuntimeException {
         if (options.get("disableOutputCodeToFile")) return;
 
-        String codeType = extractCodeType( message );
-        try ( BufferedWriter writer = new BufferedWriter( new FileWriter( generateCodeFileName( codeType ) ) ) ) {
-            List<String> codeList = extractCode( message );
-            codeList.forEach(code -> {
+        File codeFile = new File( generateCodeFileName( extractCodeType( message ) ) );
+        try {
+            writeCode( codeFile, extractCode( message ) );
+        } catch ( IOException writeCodeException ) {
+            handleException( "couldn't write to the code file", writeCodeException );
+            throw new RuntimeException( "Failed to write the the code file. Exiting");
+        }
+    }
+
+    /**
+     * Writes the code blocks to the file, checking before each block whether the current request is cancelled.
+     * If it is, the partially written file is deleted, so that no half-written code is left behind.
+     *
+     * @param codeFile the file to write
+     * @param codeList the code blocks
+     * @throws IOException if the file cannot be created
+     * @throws CancellationException if the current request was cancelled or its deadline passed
+     */
+    static void writeCode( File codeFile, List<String> codeList ) throws IOException {
+        try ( BufferedWriter writer = new BufferedWriter( new FileWriter( codeFile ) ) ) {
+            for ( String code : codeList ) {
+                RequestContext.throwIfCurrentCancelled();
                 try {
                     writer.write(code);
                     writer.newLine();
                 } catch (IOException writeCodeLineException) {
                     handleException( "couldn't next line to the code file", writeCodeLineException );
                 }
-            });
-        } catch ( IOException writeCodeException ) {
-            handleException( "couldn't write to the code file", writeCodeException );
-            throw new RuntimeException( "Failed to write the the code file. Exiting");
+            }
+        } catch ( CancellationException cancellationException ) {
+            // The writer is already closed here, so the file can be deleted on every platform
+            if ( !codeFile.delete() ) System.out.println( OPENAICLI_CMD_HEADER + " Partial code file " + codeFile + " could not be deleted." );
+            throw cancellationException;
         }
     }
 
     /**
      * A method to handle user inputs and interact with OpenAI.
+     * If an input file was given on the command line, the first question is about that file.
      *
      * @return true if the chat should continue, false otherwise
      */
     private boolean askGPT() {
-        System.out.print("You: ");
-        Scanner scanner = new Scanner(System.in);
+        String inputFile = pendingInputFile;
+        pendingInputFile = null;
+
+        System.out.print( inputFile == null ? "You: " : "You (about " + inputFile + "): " );
+        if ( scanner == null ) scanner = new Scanner(System.in);
+        if ( !scanner.hasNextLine() ) return false;
         String userInput = scanner.nextLine();
-        return askGPT( userInput );
+        return askGPT( inputFile == null ? userInput : FileInputRequest.format( inputFile, userInput ) );
     }
 
 
@@ -382,49 +487,291 @@ public class APIHandler {
             if( userInput.equalsIgnoreCase( "QUIT" ) ) return false;
         } else if ( userInput.equalsIgnoreCase( "WIPE" ) ||
                     userInput.equalsIgnoreCase( "WIPEHISTORY" ) ) {
-            history = new ArrayList<>( );
-            clearHistoryToFile( );
+            wipeHistory( );
+        } else if ( userInput.equalsIgnoreCase( "STATS" ) ) {
+            System.out.print( router.describe() );
+            System.out.println( "Requests: " + inFlightRequests );
+            return true;
         }
 
         try {
-            ChatMessage response = askGPT_GetResponse(userInput);
-
-            if (hasCode(response)) writeCodeToFile(response);
+            currentRequest = askGPT_GetResponseAsync( userInput );
+            ChatMessage response = currentRequest.get();
 
             System.out.print("ChatGPT: " + response.getContent() + System.lineSeparator());
-        } catch( Exception exception ) {
-            handleException( "Error with the ChatGPT API occurred: " + exception.getMessage(), exception );
+        } catch ( CancellationException cancellationException ) {
+            System.out.println( OPENAICLI_CMD_HEADER + " " + cancellationException.getMessage() );
+        } catch ( ExecutionException executionException ) {
+            Throwable cause = executionException.getCause();
+            if ( cause instanceof FileNotFoundException ) System.out.println( OPENAICLI_CMD_HEADER + " " + cause.getMessage() );
+            else handleException( "Error with the ChatGPT API occurred: " + cause.getMessage(), cause );
+        } catch ( InterruptedException interruptedException ) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            currentRequest = null;
         }
 
-        return false;
+        return true;
+    }
+
+    /**
+     * Sends the user's input to the GPT model in the background with the configured request deadline,
+     * or the configured input deadline if the input asks about a file. Progress is printed to the console.
+     *
+     * @param userInput The input from the command line or from the UI
+     *
+     * @return a cancellable future of the response
+     * @see #askGPT_GetResponseAsync(String, Duration, Consumer)
+     */
+    public RequestFuture< ChatMessage > askGPT_GetResponseAsync( String userInput ) {
+        return askGPT_GetResponseAsync( userInput, this::printProgress );
     }
 
+    /**
+     * Sends the user's input to the GPT model in the background with the configured request deadline,
+     * or the configured input deadline if the input asks about a file.
+     *
+     * @param userInput The input from the command line or from the UI
+     * @param progress  Receives progress messages, e.g. while a file is processed or on failover, from any thread
+     *
+     * @return a cancellable future of the response
+     * @see #askGPT_GetResponseAsync(String, Duration, Consumer)
+     */
+    public RequestFuture< ChatMessage > askGPT_GetResponseAsync( String userInput, Consumer< String > progress ) {
+        return askGPT_GetResponseAsync( userInput, FileInputRequest.isFileRequest( userInput ) ? INPUT_TIMEOUT : REQUEST_TIMEOUT, progress );
+    }
+
+    /**
+     * Sends the user's input to the GPT model in the background, printing progress to the console.
+     *
+     * @param userInput The input from the command line or from the UI
+     * @param timeout   The time allowed for the whole request
+     *
+     * @return a cancellable future of the response
+     * @see #askGPT_GetResponseAsync(String, Duration, Consumer)
+     */
+    public RequestFuture< ChatMessage > askGPT_GetResponseAsync( String userInput, Duration timeout ) {
+        return askGPT_GetResponseAsync( userInput, timeout, this::printProgress );
+    }
+
+    /**
+     * Sends the user's input to the GPT model in the background and writes any code in the response to a file.
+     * The deadline covers the HTTP call, any failover to another backend and the writing of the code file.
+     * The exchange is only added to the chat history once the response is certain to reach the caller.
+     *
+     * @param userInput The input from the command line or from the UI
+     * @param timeout   The time allowed for the whole request
+     * @param progress  Receives progress messages, e.g. while a file is processed or on failover, from any thread
+     *
+     * @return a cancellable future of the response, cancelling it aborts the HTTP call immediately
+     */
+    public RequestFuture< ChatMessage > askGPT_GetResponseAsync( String userInput, Duration timeout, Consumer< String > progress ) {
+        return submitRequest( () -> {
+            ChatMessage response = respond( userInput, progress );
+            if ( hasCode( response ) ) writeCodeToFile( response );
+            return response;
+        }, timeout, response -> recordHistory( userInput, response ) );
+    }
+
+    /**
+     * Sends the user's input to the GPT model and waits for the response, at most for the configured request deadline,
+     * or the configured input deadline if the input asks about a file.
+     *
+     * @param userInput The input from the command line or from the UI
+     *
+     * @return the response of the GPT model
+     * @throws CancellationException if the deadline passed or the calling thread was interrupted
+     */
     public ChatMessage askGPT_GetResponse( String userInput ) {
+        RequestFuture< ChatMessage > request = submitRequest( () -> respond( userInput, this::printProgress ),
+                                                              FileInputRequest.isFileRequest( userInput ) ? INPUT_TIMEOUT : REQUEST_TIMEOUT,
+                                                              response -> recordHistory( userInput, response ) );
+        try {
+            return request.get();
+        } catch ( ExecutionException executionException ) {
+            Throwable cause = executionException.getCause();
+            if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+            throw new RuntimeException( cause );
+        } catch ( InterruptedException interruptedException ) {
+            request.cancel( true );
+            Thread.currentThread().interrupt();
+            throw new CancellationException( "Interrupted while waiting for the response" );
+        }
+    }
+
+    /**
+     * Runs the work on a request thread under a new {@link RequestContext} with the given deadline.
+     *
+     * @param work      the work of the request
+     * @param timeout   the time allowed for the request
+     * @param onSuccess runs with the result once it is certain to reach the caller
+     * @param <T>       the result type of the work
+     * @return a cancellable future of the result
+     */
+    private < T > RequestFuture< T > submitRequest( Callable< T > work, Duration timeout, Consumer< ? super T > onSuccess ) {
+        RequestFuture< T > request = new RequestFuture<>( new RequestContext( timeout ), work, onSuccess );
+        request.scheduleExpiry( deadlineScheduler );
+        requestExecutor.execute( request );
+        return request;
+    }
+
+    /**
+     * Answers the user's input, either as a chat message or, for {@code @path question}, as a question about a file.
+     *
+     * @param userInput The input from the command line or from the UI
+     * @param progress  Receives progress messages, e.g. while a file is processed or on failover
+     *
+     * @return the response of the GPT model
+     * @throws FileNotFoundException if the input names a file in quotes which does not exist
+     */
+    private ChatMessage respond( String userInput, Consumer< String > progress ) throws IOException, InterruptedException {
         ChatMessage userMessage = new ChatMessage( ChatMessageRole.USER.value(), userInput );
+        FileInputRequest fileRequest = FileInputRequest.parse( userInput );
+
+        return fileRequest != null ? getFileResponse( fileRequest, progress ) : getResponse( userMessage, progress );
+    }
+
+    /**
+     * Adds the user's input and the response to the chat history, if enabled.
+     *
+     * @param userInput The input from the command line or from the UI
+     * @param response  The response the caller received
+     */
+    private void recordHistory( String userInput, ChatMessage response ) {
+        if ( !options.get( "disableLoggingChatGPTHistory" ) ) {
+            addAndRotateHistory( new ChatMessage( ChatMessageRole.USER.value(), userInput ), response );
+        }
+    }
+
+    /**
+     * Sends the user's message, preceded by the chat history if enabled, to the best available backend.
+     *
+     * @param userMessage The message from the command line or from the UI
+     * @param progress    Receives a message if the request fails over to another backend
+     *
+     * @return the response of the GPT model
+     */
+    private ChatMessage getResponse( ChatMessage userMessage, Consumer< String > progress ) throws InterruptedException {
+        // if option enabled, send history
+        List< ChatMessage > messages = !options.get( "disableSendingChatGPTHistory" ) ? returnHistoryAsList() : new ArrayList<>();
+        messages.add( userMessage );
+
+        return complete( messages, 256, progress );
+    }
+
+    /**
+     * Answers a question about a file by splitting it into chunks and processing them in parallel.
+     * The chat history is not sent, as the file content already fills the context of each request.
+     *
+     * @param fileRequest the file and the question about it
+     * @param progress    receives progress and timing messages
+     *
+     * @return the combined response of the GPT model
+     */
+    private ChatMessage getFileResponse( FileInputRequest fileRequest, Consumer< String > progress ) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Iterator< String > chunks = new FileChunker( INPUT_CHUNK_TOKENS ).split( fileRequest.getPath() );
+        progress.accept( "Reading " + fileRequest.getPath() + " in parts of about " + INPUT_CHUNK_TOKENS + " tokens, "
+                         + INPUT_CONCURRENCY + " processed at a time." );
+
+        MapReduceProcessor processor = new MapReduceProcessor( requestExecutor, INPUT_CONCURRENCY, INPUT_CHUNK_TOKENS,
+                                                               prompt -> complete( List.of( new ChatMessage( ChatMessageRole.USER.value(), prompt ) ),
+                                                                                   INPUT_MAX_TOKENS, progress ).getContent(),
+                                                               progress );
+        String answer = processor.process( fileRequest.getPath().getFileName().toString(), chunks, fileRequest.getQuestion() );
+
+        progress.accept( String.format( "Answered about %s in %.1fs.", fileRequest.getPath(), ( System.nanoTime() - start ) / 1_000_000_000.0 ) );
+        return new ChatMessage( ChatMessageRole.ASSISTANT.value(), answer );
+    }
 
-        // Process the user's message with OpenAI
-        ChatCompletionRequest chatRequest = ChatCompletionRequest.builder( )
-                                                                 .model( OPENAI_MODEL ) // see https://platform.openai.com/docs/models
-                                                                  // if option enabled, send history
-                                                                 .messages( !options.get( "disableSendingChatGPTHistory" ) ? returnHistoryAsList() : null )
-                                                                 .maxTokens( 256 )
-                                                                 .build( );
+    /**
+     * Prints a progress message to the console.
+     *
+     * @param message the progress message
+     */
+    private void printProgress( String message ) {
+        System.out.println( OPENAICLI_CMD_HEADER + " " + message );
+    }
+
+    /**
+     * Sends the messages to the best available backend.
+     * If an identical request is already in flight, its response is shared rather than making another call.
+     *
+     * @param messages  the messages of the conversation
+     * @param maxTokens the maximum number of tokens in the response
+     * @param progress  receives a message if the request fails over to another backend
+     *
+     * @return the response of the GPT model
+     */
+    private ChatMessage complete( List< ChatMessage > messages, int maxTokens, Consumer< String > progress ) throws InterruptedException {
+        List< Object > requestKey = new ArrayList<>( messages.size() + 2 );
+        requestKey.add( OPENAI_MODEL );
+        requestKey.add( maxTokens );
+        for ( ChatMessage message : messages ) requestKey.add( Arrays.asList( message.getRole(), message.getName(), message.getContent() ) );
+
+        return inFlightRequests.execute( requestKey, () -> {
+            // Process the messages with OpenAI
+            ChatCompletionRequest chatRequest = ChatCompletionRequest.builder( )
+                                                                     .model( OPENAI_MODEL ) // see https://platform.openai.com/docs/models
+                                                                     .messages( messages )
+                                                                     .maxTokens( maxTokens )
+                                                                     .build( );
+
+            return router.createChatCompletion( chatRequest, progress ).getChoices( )
+                                                                       .get( 0 )
+                                                                       .getMessage( );
+        } );
+    }
 
-        ChatMessage response = service.createChatCompletion( chatRequest ).getChoices( )
-                                                                          .get( 0 )
-                                                                          .getMessage( );
+    /**
+     * Returns the number of chat completion calls made to the backends.
+     *
+     * @return the number of upstream calls
+     */
+    public long getUpstreamCalls() {
+        return inFlightRequests.getUpstreamCalls();
+    }
 
-        if ( !options.get( "disableLoggingChatGPTHistory" ) ) addAndRotateHistory( userMessage, response );  // Add the last user message to history
+    /**
+     * Returns the number of chat completion calls saved by sharing the response of an identical request in flight.
+     *
+     * @return the number of coalesced requests
+     */
+    public long getCoalescedCalls() {
+        return inFlightRequests.getCoalescedCalls();
+    }
 
-        return response;
+    /**
+     * Makes Ctrl-C cancel the request the command line interface is waiting for, rather than the whole application.
+     * Without a request in flight Ctrl-C exits as usual.
+     */
+    private void installInterruptHandler() {
+        boolean installed = InterruptSignal.install( () -> {
+            RequestFuture< ChatMessage > request = currentRequest;
+            if ( request != null && !request.isDone() ) request.cancel( true );
+            else System.exit( 130 );
+        } );
+        if ( !installed ) System.out.println( OPENAICLI_CMD_HEADER + " Ctrl-C cannot cancel requests on this platform." );
     }
 
     /**
      * A method to start the chat loop.
-     * TODO: decide if a thread could be useful, write now in such a simple project it is not useful.
+     * Each request runs on a background thread so that Ctrl-C can abandon it and return to the prompt.
      */
     public void start() {
+        start( null );
+    }
+
+    /**
+     * A method to start the chat loop, with the first question being about the given file.
+     *
+     * @param inputFile the file the first question is about, or null
+     */
+    public void start( String inputFile ) {
+        pendingInputFile = inputFile;
         readHistoryFromFile();
+        installInterruptHandler();
         while (true) {
             if (!askGPT()) {
                 break;
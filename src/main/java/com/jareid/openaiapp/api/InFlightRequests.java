@@ -0,0 +1,124 @@
+package com.jareid.openaiapp.api;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent requests into a single upstream call (single-flight).
+ *
+ * <p> The first caller for a key makes the upstream call; callers arriving with the same key while it is
+ * in flight attach to it and receive its result, or its failure, instead of making their own call.
+ * Each attached caller still waits within its own {@link RequestContext}, so cancelling one of them
+ * never affects the others. If the caller making the upstream call is cancelled, the attached callers
+ * do not inherit its cancellation but try again, one of them making a new upstream call.
+ *
+ * @param <K> the type of the request keys, which must implement {@code equals} and {@code hashCode}
+ * @param <V> the type of the results
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class InFlightRequests< K, V > {
+    /** The upstream calls in flight by request key. */
+    private final ConcurrentHashMap< K, CompletableFuture< V > > flights = new ConcurrentHashMap<>();
+
+    /** The number of upstream calls made. */
+    private final AtomicLong upstreamCalls = new AtomicLong();
+
+    /** The number of requests served by another request's upstream call. */
+    private final AtomicLong coalescedCalls = new AtomicLong();
+
+    /**
+     * Makes the upstream call for the key, or attaches to the one already in flight.
+     *
+     * @param key  the key identifying identical requests
+     * @param call the upstream call
+     * @return the result of the upstream call
+     * @throws InterruptedException if the calling thread is interrupted while waiting for another caller's call
+     * @throws CancellationException if the current request is cancelled or past its deadline
+     */
+    public V execute( K key, Supplier< V > call ) throws InterruptedException {
+        while ( true ) {
+            CompletableFuture< V > flight = new CompletableFuture<>();
+            CompletableFuture< V > existing = flights.putIfAbsent( key, flight );
+
+            if ( existing == null ) {
+                upstreamCalls.incrementAndGet();
+                V result;
+                try {
+                    result = call.get();
+                } catch ( RuntimeException | Error failure ) {
+                    // Remove the flight before completing it, so that a caller arriving in between
+                    // makes a new call, and a follower retrying after a cancellation finds the key free
+                    flights.remove( key, flight );
+                    flight.completeExceptionally( failure );
+                    throw failure;
+                }
+                flights.remove( key, flight );
+                flight.complete( result );
+                return result;
+            }
+
+            try {
+                V result = await( existing );
+                coalescedCalls.incrementAndGet();
+                return result;
+            } catch ( CancellationException cancellationException ) {
+                // Either our own deadline passed, or the caller making the upstream call gave up,
+                // which is no reason for us to give up too
+                RequestContext.throwIfCurrentCancelled();
+            } catch ( ExecutionException executionException ) {
+                coalescedCalls.incrementAndGet();
+                Throwable cause = executionException.getCause();
+                if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+                if ( cause instanceof Error ) throw (Error) cause;
+                throw new IllegalStateException( cause );
+            }
+        }
+    }
+
+    /**
+     * Waits for another caller's upstream call within the deadline of the current request.
+     */
+    private V await( CompletableFuture< V > flight ) throws InterruptedException, ExecutionException {
+        RequestContext context = RequestContext.current();
+        if ( context == null ) return flight.get();
+
+        try {
+            return flight.get( Math.max( 0L, context.remainingNanos() ), TimeUnit.NANOSECONDS );
+        } catch ( TimeoutException timeoutException ) {
+            throw context.cancellationException();
+        }
+    }
+
+    /**
+     * Returns the number of upstream calls made.
+     *
+     * @return the number of upstream calls
+     */
+    public long getUpstreamCalls() {
+        return upstreamCalls.get();
+    }
+
+    /**
+     * Returns the number of upstream calls saved by coalescing.
+     *
+     * @return the number of requests served by another request's upstream call
+     */
+    public long getCoalescedCalls() {
+        return coalescedCalls.get();
+    }
+
+    @Override
+    public String toString() {
+        return "upstream calls=" + upstreamCalls.get() + ", saved by coalescing=" + coalescedCalls.get()
+               + ", in flight=" + flights.size();
+    }
+}
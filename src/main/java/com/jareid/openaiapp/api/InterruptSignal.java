@@ -0,0 +1,56 @@
+package com.jareid.openaiapp.api;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Installs a handler for Ctrl-C (SIGINT) in the command line interface.
+ *
+ * <p> The JDK only offers this through the unsupported {@code sun.misc.Signal} API. It is accessed
+ * reflectively so that the build does not depend on, or warn about, internal proprietary API;
+ * on a JVM without it the handler is simply not installed.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+final class InterruptSignal {
+    private InterruptSignal() {
+    }
+
+    /**
+     * Replaces the default Ctrl-C behaviour with the given handler.
+     *
+     * @param handler the handler, run on a JVM signal thread
+     * @return true if the handler was installed, false if this JVM or platform does not support it
+     */
+    static boolean install( Runnable handler ) {
+        try {
+            Class< ? > signalClass = Class.forName( "sun.misc.Signal" );
+            Class< ? > handlerClass = Class.forName( "sun.misc.SignalHandler" );
+
+            Object signal = signalClass.getConstructor( String.class ).newInstance( "INT" );
+            Object signalHandler = Proxy.newProxyInstance( InterruptSignal.class.getClassLoader(), new Class< ? >[] { handlerClass },
+                                                           ( proxy, method, args ) -> invoke( proxy, method, args, handler ) );
+
+            signalClass.getMethod( "handle", signalClass, handlerClass ).invoke( null, signal, signalHandler );
+            return true;
+        } catch ( ReflectiveOperationException | RuntimeException unsupported ) {
+            return false;
+        }
+    }
+
+    private static Object invoke( Object proxy, Method method, Object[] args, Runnable handler ) {
+        switch ( method.getName() ) {
+            case "handle":
+                handler.run();
+                return null;
+            case "equals":
+                return proxy == args[ 0 ];
+            case "hashCode":
+                return System.identityHashCode( proxy );
+            default:
+                return "InterruptSignal handler";
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.jareid.openaiapp.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The deadline and cancellation state of a single request to the GPT model.
+ *
+ * <p> While a request runs, its context is bound to the executing thread so that every layer below
+ * {@link APIHandler}, i.e. the backend router, the HTTP client and the code file writer, can check
+ * whether it should carry on. Work which holds on to a resource, such as an in-flight HTTP call,
+ * registers a hook via {@link #onCancel(Runnable)} so that the resource is released the moment the
+ * request is cancelled or its deadline passes.
+ *
+ * @author Jamie Reid
+ * @see RequestFuture
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class RequestContext {
+    /** The context of the request the current thread is working on, if any. */
+    private static final ThreadLocal< RequestContext > CURRENT = new ThreadLocal<>();
+
+    /** The time allowed for the request. */
+    private final Duration timeout;
+
+    /** The {@link System#nanoTime()} at which the request must be finished. */
+    private final long deadlineNanos;
+
+    /** The hooks to run on cancellation, guarded by {@code this}. */
+    private final List< Runnable > cancelHooks = new ArrayList<>();
+
+    private volatile boolean cancelled = false;
+    private volatile boolean expired = false;
+
+    /**
+     * Constructs a context whose deadline is the given time from now.
+     *
+     * @param timeout the time allowed for the request
+     */
+    public RequestContext( Duration timeout ) {
+        this( timeout, System.nanoTime() + timeout.toNanos() );
+    }
+
+    private RequestContext( Duration timeout, long deadlineNanos ) {
+        this.timeout = timeout;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a context for part of this request's work, e.g. one stage of parallel calls.
+     * The child shares this context's deadline and is cancelled along with it, but can also be
+     * cancelled on its own to abort just its part of the work without affecting this context.
+     * Cancelling the child also unlinks it from this context, so it must always be cancelled once
+     * its work is finished.
+     *
+     * @return the child context
+     */
+    public RequestContext createChild() {
+        RequestContext child = new RequestContext( timeout, deadlineNanos );
+        Runnable unlink = onCancel( () -> {
+            if ( expired ) child.expire();
+            else child.cancel();
+        } );
+        child.onCancel( unlink );
+        return child;
+    }
+
+    /**
+     * Returns the context bound to the current thread.
+     *
+     * @return the current context, or null if the thread is not working on a request
+     */
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Throws if the current thread is working on a request which was cancelled or has expired.
+     *
+     * @throws CancellationException if the current request should stop
+     */
+    public static void throwIfCurrentCancelled() {
+        RequestContext context = CURRENT.get();
+        if ( context != null ) context.throwIfCancelled();
+    }
+
+    /**
+     * Runs the work with this context bound to the current thread.
+     *
+     * @param work the work to run
+     * @param <T>  the result type of the work
+     * @return the result of the work
+     * @throws Exception any exception thrown by the work
+     */
+    public < T > T call( Callable< T > work ) throws Exception {
+        RequestContext previous = CURRENT.get();
+        CURRENT.set( this );
+        try {
+            return work.call();
+        } finally {
+            if ( previous == null ) CURRENT.remove();
+            else CURRENT.set( previous );
+        }
+    }
+
+    /**
+     * Returns the time left until the deadline.
+     *
+     * @return the remaining nanoseconds, zero or negative once the deadline has passed
+     */
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Returns whether the request was cancelled or its deadline has passed.
+     *
+     * @return true if the request should stop
+     */
+    public boolean isCancelled() {
+        return cancelled || remainingNanos() <= 0;
+    }
+
+    /**
+     * Throws if the request was cancelled or its deadline has passed.
+     *
+     * @throws CancellationException if the request should stop
+     */
+    public void throwIfCancelled() {
+        if ( isCancelled() ) throw cancellationException();
+    }
+
+    /**
+     * Creates an exception describing why the request stopped.
+     *
+     * @return the exception to throw
+     */
+    public CancellationException cancellationException() {
+        if ( expired || ( !cancelled && remainingNanos() <= 0 ) ) {
+            String allowed = timeout.toMillis() % 1000 == 0 ? timeout.toSeconds() + "s" : timeout.toMillis() + "ms";
+            return new CancellationException( "Request deadline of " + allowed + " exceeded" );
+        }
+        return new CancellationException( "Request cancelled" );
+    }
+
+    /**
+     * Registers a hook which releases a resource held by the request when it is cancelled.
+     * If the request is already cancelled the hook runs immediately.
+     *
+     * @param hook the hook to run on cancellation
+     * @return a handle which unregisters the hook once the resource is no longer in use
+     */
+    public Runnable onCancel( Runnable hook ) {
+        synchronized ( this ) {
+            if ( !cancelled ) {
+                cancelHooks.add( hook );
+                return () -> {
+                    synchronized ( this ) {
+                        cancelHooks.remove( hook );
+                    }
+                };
+            }
+        }
+        hook.run();
+        return () -> { };
+    }
+
+    /**
+     * Cancels the request, running every registered hook.
+     */
+    public void cancel() {
+        List< Runnable > hooks;
+        synchronized ( this ) {
+            if ( cancelled ) return;
+            cancelled = true;
+            hooks = new ArrayList<>( cancelHooks );
+            cancelHooks.clear();
+        }
+        hooks.forEach( Runnable::run );
+    }
+
+    /**
+     * Cancels the request because its deadline has passed.
+     */
+    void expire() {
+        expired = true;
+        cancel();
+    }
+
+    /**
+     * Returns the number of hooks waiting for cancellation, e.g. to check that finished work unregistered its hooks.
+     *
+     * @return the number of registered hooks
+     */
+    synchronized int registeredHooks() {
+        return cancelHooks.size();
+    }
+
+    /**
+     * Returns whether the request was stopped by its deadline rather than by the caller.
+     *
+     * @return true if the deadline passed
+     */
+    public boolean isExpired() {
+        return expired;
+    }
+}
@@ -0,0 +1,128 @@
+package com.jareid.openaiapp.api;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * A cancellable handle to a request running in the background with a deadline.
+ *
+ * <p> Cancelling the future, or reaching its deadline, interrupts the worker thread and cancels the
+ * {@link RequestContext} of the request, which aborts any in-flight HTTP call straight away.
+ * {@link #get()} then throws a {@link CancellationException} saying whether the request was
+ * cancelled or ran out of time.
+ *
+ * <p> Work which must only take effect if the caller actually receives the result, such as recording it
+ * in the chat history, is given as {@code onSuccess}. It runs once the result has been set, when neither
+ * cancellation nor the deadline can discard the result any more.
+ *
+ * @param <V> the result type of the request
+ *
+ * @author Jamie Reid
+ * @see RequestContext
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class RequestFuture< V > extends FutureTask< V > {
+    /** The deadline and cancellation state shared with the work. */
+    private final RequestContext context;
+
+    /** Runs with the result once it can no longer be discarded. */
+    private final Consumer< ? super V > onSuccess;
+
+    /** The scheduled expiry of the request, cancelled once the request is done. */
+    private volatile ScheduledFuture< ? > expiry;
+
+    /**
+     * Constructs a future which runs the work with the given context bound to the worker thread.
+     *
+     * @param context the context of the request
+     * @param work    the work to run
+     */
+    public RequestFuture( RequestContext context, Callable< V > work ) {
+        this( context, work, result -> { } );
+    }
+
+    /**
+     * Constructs a future which runs the work with the given context bound to the worker thread,
+     * and then hands the result to {@code onSuccess} unless the request was cancelled or expired first.
+     *
+     * @param context   the context of the request
+     * @param work      the work to run
+     * @param onSuccess runs on the worker thread with the result once it is certain to reach the caller
+     */
+    public RequestFuture( RequestContext context, Callable< V > work, Consumer< ? super V > onSuccess ) {
+        super( () -> context.call( work ) );
+        this.context = context;
+        this.onSuccess = onSuccess;
+    }
+
+    /**
+     * Schedules the expiry of this request at its deadline.
+     *
+     * @param scheduler the scheduler to run the expiry on
+     */
+    void scheduleExpiry( ScheduledExecutorService scheduler ) {
+        expiry = scheduler.schedule( this::expire, Math.max( 0L, context.remainingNanos() ), TimeUnit.NANOSECONDS );
+        if ( isDone() ) expiry.cancel( false );
+    }
+
+    private void expire() {
+        if ( isDone() ) return;
+        context.expire();
+        super.cancel( true );
+    }
+
+    @Override
+    public boolean cancel( boolean mayInterruptIfRunning ) {
+        boolean cancelled = super.cancel( mayInterruptIfRunning );
+        if ( cancelled ) context.cancel();
+        return cancelled;
+    }
+
+    @Override
+    protected void set( V result ) {
+        super.set( result );
+        // Only false if a cancellation or the deadline won the race against the result, which is then discarded
+        if ( !isCancelled() ) onSuccess.accept( result );
+    }
+
+    @Override
+    protected void done() {
+        ScheduledFuture< ? > scheduledExpiry = expiry;
+        if ( scheduledExpiry != null ) scheduledExpiry.cancel( false );
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+        try {
+            return super.get();
+        } catch ( CancellationException cancellationException ) {
+            throw context.cancellationException();
+        }
+    }
+
+    @Override
+    public V get( long timeout, TimeUnit unit ) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            return super.get( timeout, unit );
+        } catch ( CancellationException cancellationException ) {
+            throw context.cancellationException();
+        }
+    }
+
+    /**
+     * Returns whether the request was stopped by its deadline.
+     *
+     * @return true if the deadline passed before the request finished
+     */
+    public boolean isExpired() {
+        return context.isExpired();
+    }
+}
@@ -0,0 +1,232 @@
+package com.jareid.openaiapp.api.backend;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import com.jareid.openaiapp.api.RequestContext;
+import com.jareid.openaiapp.utils.PropertyUtils;
+import com.theokanning.openai.OpenAiHttpException;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatCompletionResult;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Routes chat completion requests over one or more {@link CompletionBackend}s.
+ *
+ * <p> For every request the backends are ranked by their live latency and recent failures, see {@link BackendStats},
+ * backends with an open circuit are skipped, and if the chosen backend fails the request fails over
+ * to the next one. A request only fails if every available backend failed it.
+ *
+ * <p> When called within a {@link RequestContext}, no attempt or failover is started once the request
+ * is cancelled or past its deadline, and a call aborted by cancellation is not held against the backend.
+ *
+ * <p> Backends are configured in {@code config.properties}:
+ * <pre>
+ * openaicli.backends=openai,local
+ * openaicli.backend.openai.url=https://api.openai.com/
+ * openaicli.backend.local.url=http://localhost:11434/
+ * openaicli.backend.local.apiKey=
+ * openaicli.backend.local.timeoutSeconds=120
+ * openaicli.backend.local.model.gpt-4=llama3
+ * openaicli.backend.local.penaltyHalfLifeSeconds=60
+ * openaicli.backend.local.probeSeconds=300
+ * </pre>
+ * If {@code openaicli.backends} is not set, a single backend named {@code openai} is used.
+ * The URL is the root of the server, as the API paths already contain {@code /v1}.
+ * A backend without an {@code apiKey} uses {@code openai.api.key}.
+ *
+ * @author Jamie Reid
+ * @see CompletionBackend
+ * @see BackendStats
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class BackendRouter {
+    private static final String BACKENDS_PROPERTY = "openaicli.backends";
+    private static final String BACKEND_PROPERTY_PREFIX = "openaicli.backend.";
+    private static final String API_KEY_PROPERTY = "openai.api.key";
+
+    private static final int DEFAULT_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    private static final int DEFAULT_OPEN_SECONDS = 30;
+
+    /** The HTTP status for a request the backend considers invalid, which another backend may well accept. */
+    private static final int BAD_REQUEST_STATUS = 400;
+
+    /** The backends in configuration order, used as the tie-breaker when ranking. */
+    private final List<CompletionBackend> backends;
+
+    /**
+     * Constructs a router over the given backends.
+     *
+     * @param backends the backends in order of preference
+     */
+    public BackendRouter( List<CompletionBackend> backends ) {
+        if ( backends.isEmpty() ) throw new IllegalArgumentException( "At least one completion backend must be configured" );
+        this.backends = List.copyOf( backends );
+    }
+
+    /**
+     * Creates a router from the application properties.
+     *
+     * @param properties the loaded secret and non-secret properties
+     * @return the configured router
+     * @throws IllegalArgumentException if a backend talking to the OpenAI API has no API key
+     */
+    public static BackendRouter fromProperties( Properties properties ) {
+        String names = properties.getProperty( BACKENDS_PROPERTY );
+        if ( StringUtils.isBlank( names ) ) names = "openai";
+
+        List<CompletionBackend> backends = new ArrayList<>();
+        for ( String name : names.split( "," ) ) {
+            name = name.trim();
+            if ( !name.isEmpty() ) backends.add( createBackend( name, properties ) );
+        }
+        return new BackendRouter( backends );
+    }
+
+    private static CompletionBackend createBackend( String name, Properties properties ) {
+        String prefix = BACKEND_PROPERTY_PREFIX + name + ".";
+
+        String baseUrl = properties.getProperty( prefix + "url", CompletionBackend.OPENAI_BASE_URL ).trim();
+        if ( !baseUrl.endsWith( "/" ) ) baseUrl += "/";
+
+        String apiKey = properties.getProperty( prefix + "apiKey" );
+        if ( StringUtils.isEmpty( apiKey ) ) apiKey = properties.getProperty( API_KEY_PROPERTY );
+        if ( StringUtils.isEmpty( apiKey ) && CompletionBackend.OPENAI_BASE_URL.equals( baseUrl ) ) {
+            throw new IllegalArgumentException( "OpenAI API key must be set in secret.properties for backend " + name );
+        }
+
+        Duration timeout = Duration.ofSeconds( PropertyUtils.getIntProperty( properties, prefix + "timeoutSeconds", DEFAULT_TIMEOUT_SECONDS ) );
+        BackendStats stats = new BackendStats( PropertyUtils.getIntProperty( properties, prefix + "failureThreshold", DEFAULT_FAILURE_THRESHOLD ),
+                                               Duration.ofSeconds( PropertyUtils.getIntProperty( properties, prefix + "openSeconds", DEFAULT_OPEN_SECONDS ) ),
+                                               timeout,
+                                               Duration.ofSeconds( PropertyUtils.getIntProperty( properties, prefix + "penaltyHalfLifeSeconds",
+                                                                                                 (int) BackendStats.DEFAULT_PENALTY_HALF_LIFE.toSeconds() ) ),
+                                               Duration.ofSeconds( PropertyUtils.getIntProperty( properties, prefix + "probeSeconds",
+                                                                                                 (int) BackendStats.DEFAULT_PROBE_INTERVAL.toSeconds() ) ) );
+
+        Map<String, String> modelMapping = new HashMap<>();
+        String modelPrefix = prefix + "model.";
+        for ( String key : properties.stringPropertyNames() ) {
+            if ( key.startsWith( modelPrefix ) ) modelMapping.put( key.substring( modelPrefix.length() ), properties.getProperty( key ).trim() );
+        }
+
+        return new CompletionBackend( name, baseUrl, properties.getProperty( prefix + "model" ), modelMapping,
+                                      CompletionBackend.createService( baseUrl, apiKey, timeout ), stats );
+    }
+
+    /**
+     * Sends the request to the best available backend, failing over to the next best on failure
+     * without reporting it.
+     *
+     * @param request the chat completion request, carrying the application's model name
+     * @return the result of the first backend which answered
+     * @see #createChatCompletion(ChatCompletionRequest, Consumer)
+     */
+    public ChatCompletionResult createChatCompletion( ChatCompletionRequest request ) {
+        return createChatCompletion( request, message -> { } );
+    }
+
+    /**
+     * Sends the request to the best available backend, failing over to the next best on failure.
+     * The model of the request is rewritten for each backend and restored before returning.
+     *
+     * @param request  the chat completion request, carrying the application's model name
+     * @param progress receives a message whenever the request fails over to another backend
+     * @return the result of the first backend which answered
+     * @throws IllegalStateException if every backend's circuit is open
+     * @throws java.util.concurrent.CancellationException if the current request is cancelled or past its deadline
+     * @throws RuntimeException the last failure if every available backend failed
+     */
+    public ChatCompletionResult createChatCompletion( ChatCompletionRequest request, Consumer<String> progress ) {
+        String requestedModel = request.getModel();
+        RequestContext context = RequestContext.current();
+        CompletionBackend failedBackend = null;
+        RuntimeException lastFailure = null;
+
+        for ( CompletionBackend backend : rankBackends() ) {
+            if ( context != null ) context.throwIfCancelled();
+
+            BackendStats stats = backend.getStats();
+            if ( !stats.tryAcquire() ) continue;
+
+            // Only reported now that there is another backend to fail over to
+            if ( failedBackend != null ) {
+                progress.accept( "Backend " + failedBackend.getName() + " failed (" + lastFailure.getMessage() + "), "
+                                 + "failing over to " + backend.getName() );
+            }
+
+            request.setModel( backend.resolveModel( requestedModel ) );
+            long start = System.nanoTime();
+            try {
+                ChatCompletionResult result = backend.createChatCompletion( request );
+                stats.recordSuccess( System.nanoTime() - start );
+                return result;
+            } catch ( RuntimeException backendException ) {
+                if ( context != null && context.isCancelled() ) {
+                    // The call was aborted by us, which says nothing about the backend's health
+                    stats.release();
+                    throw context.cancellationException();
+                }
+                if ( backendException instanceof OpenAiHttpException
+                     && ( (OpenAiHttpException) backendException ).statusCode == BAD_REQUEST_STATUS ) {
+                    // Backends map models differently and have different context windows,
+                    // so the next backend may accept what this one rejected
+                    stats.recordRejection( System.nanoTime() - start );
+                } else {
+                    stats.recordFailure( System.nanoTime() - start );
+                }
+                failedBackend = backend;
+                lastFailure = backendException;
+            } finally {
+                request.setModel( requestedModel );
+            }
+        }
+
+        if ( lastFailure != null ) throw lastFailure;
+        throw new IllegalStateException( "No completion backend is available, all circuits are open" );
+    }
+
+    /**
+     * Returns the backends ordered from best to worst routing score.
+     * Backends without any samples yet score zero, so each backend is tried early on. A backend which
+     * has not been used for its probe interval is moved to the front, once, so that a backend ranked
+     * behind a healthy one is still sampled now and then and can win its place back.
+     *
+     * @return the ranked backends
+     */
+    private List<CompletionBackend> rankBackends() {
+        // Scores decay with time, so they are read once rather than while sorting
+        Map<CompletionBackend, Double> scores = new HashMap<>();
+        for ( CompletionBackend backend : backends ) scores.put( backend, backend.getStats().score() );
+
+        List<CompletionBackend> ranked = new ArrayList<>( backends );
+        ranked.sort( Comparator.comparingDouble( scores::get ) );
+
+        for ( int i = 1; i < ranked.size(); i++ ) {
+            if ( ranked.get( i ).getStats().claimProbe() ) {
+                ranked.add( 0, ranked.remove( i ) );
+                break;
+            }
+        }
+        return ranked;
+    }
+
+    /**
+     * Returns a human-readable summary of every backend and its statistics.
+     *
+     * @return the summary, one backend per line
+     */
+    public String describe() {
+        StringBuilder builder = new StringBuilder();
+        for ( CompletionBackend backend : backends ) builder.append( backend ).append( System.lineSeparator() );
+        return builder.toString();
+    }
+}
@@ -0,0 +1,269 @@
+package com.jareid.openaiapp.api.backend;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Live health statistics and circuit breaker state for a single {@link CompletionBackend}.
+ *
+ * <p> The routing score is the expected time a request sent to the backend costs: the moving average
+ * latency of its successful requests plus a penalty for the time recently wasted on it. A failure adds
+ * at least {@code failureLatency}, usually the backend's timeout, to the penalty, so a backend which fails
+ * fast, e.g. by refusing connections, never looks faster than one which answers. A rejected request
+ * (HTTP 400) only adds the time it took, as the backend itself is healthy. The penalty halves every
+ * {@code penaltyHalfLife} whether or not the backend is used, so a backend demoted by a passing problem
+ * is tried again once the problem is likely over.
+ *
+ * <p> A backend which has not been sent a request for {@code probeInterval} is due for a probe, see
+ * {@link #claimProbe()}, so that the latency of a backend ranked behind a healthy one stays current.
+ *
+ * <p> After {@code failureThreshold} consecutive failures the circuit opens and the backend is skipped
+ * until {@code openDuration} has elapsed, at which point a single probe request is let through
+ * (half-open). A successful probe closes the circuit again, a failed one re-opens it.
+ *
+ * <p> All methods are synchronized, so a single instance may be shared between request threads.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class BackendStats {
+    /**
+     * The states a circuit breaker can be in.
+     */
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    /** The weight given to the newest sample in the moving averages. */
+    private static final double SMOOTHING_FACTOR = 0.2;
+
+    /** The time after which the penalty of past failures has halved, unless configured. */
+    public static final Duration DEFAULT_PENALTY_HALF_LIFE = Duration.ofMinutes( 1 );
+
+    /** The time without requests after which a backend is probed, unless configured. */
+    public static final Duration DEFAULT_PROBE_INTERVAL = Duration.ofMinutes( 5 );
+
+    /** The number of consecutive failures which opens the circuit. */
+    private final int failureThreshold;
+
+    /** How long an open circuit rejects requests before allowing a probe. */
+    private final long openDurationNanos;
+
+    /** The minimum time charged to the penalty for a failed request. */
+    private final long failureLatencyNanos;
+
+    /** The time after which the penalty has halved. */
+    private final long penaltyHalfLifeNanos;
+
+    /** The time without requests after which the backend is due for a probe. */
+    private final long probeIntervalNanos;
+
+    /** The source of the current time in nanoseconds, {@link System#nanoTime()} outside of tests. */
+    private final LongSupplier clock;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private boolean probeInFlight = false;
+    private long openedAtNanos = 0L;
+    private int consecutiveFailures = 0;
+
+    private double latencyAverageNanos = 0.0;
+    private double penaltyNanos = 0.0;
+    private double errorRate = 0.0;
+    private long successCount = 0L;
+    private long failureCount = 0L;
+    private long decayedAtNanos;
+    private long lastRequestNanos;
+
+    /**
+     * Constructs the statistics for a backend with the default penalty half-life and probe interval.
+     *
+     * @param failureThreshold the number of consecutive failures which opens the circuit
+     * @param openDuration     how long the circuit stays open before a probe request is allowed
+     * @param failureLatency   the minimum time charged for a failed request, usually the backend's timeout
+     */
+    public BackendStats( int failureThreshold, Duration openDuration, Duration failureLatency ) {
+        this( failureThreshold, openDuration, failureLatency, DEFAULT_PENALTY_HALF_LIFE, DEFAULT_PROBE_INTERVAL );
+    }
+
+    /**
+     * Constructs the statistics for a backend.
+     *
+     * @param failureThreshold the number of consecutive failures which opens the circuit
+     * @param openDuration     how long the circuit stays open before a probe request is allowed
+     * @param failureLatency   the minimum time charged for a failed request, usually the backend's timeout
+     * @param penaltyHalfLife  the time after which the penalty of past failures has halved
+     * @param probeInterval    the time without requests after which the backend is due for a probe
+     */
+    public BackendStats( int failureThreshold, Duration openDuration, Duration failureLatency,
+                         Duration penaltyHalfLife, Duration probeInterval ) {
+        this( failureThreshold, openDuration, failureLatency, penaltyHalfLife, probeInterval, System::nanoTime );
+    }
+
+    /**
+     * Constructs the statistics for a backend with the given clock, for tests.
+     */
+    BackendStats( int failureThreshold, Duration openDuration, Duration failureLatency,
+                  Duration penaltyHalfLife, Duration probeInterval, LongSupplier clock ) {
+        if ( failureThreshold < 1 ) throw new IllegalArgumentException( "The failure threshold must be at least 1" );
+        if ( penaltyHalfLife.isNegative() || penaltyHalfLife.isZero() ) throw new IllegalArgumentException( "The penalty half-life must be positive" );
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.failureLatencyNanos = failureLatency.toNanos();
+        this.penaltyHalfLifeNanos = penaltyHalfLife.toNanos();
+        this.probeIntervalNanos = probeInterval.toNanos();
+        this.clock = clock;
+        this.decayedAtNanos = clock.getAsLong();
+        this.lastRequestNanos = decayedAtNanos;
+    }
+
+    /**
+     * Asks the circuit breaker whether a request may be sent to the backend right now.
+     * Every {@code true} answer must be followed by either {@link #recordSuccess(long)},
+     * {@link #recordFailure(long)}, {@link #recordRejection(long)} or {@link #release()}.
+     *
+     * @return true if the request may proceed, false if the backend should be skipped
+     */
+    public synchronized boolean tryAcquire() {
+        switch ( state ) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if ( clock.getAsLong() - openedAtNanos < openDurationNanos ) return false;
+                state = CircuitState.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            case HALF_OPEN:
+            default:
+                if ( probeInFlight ) return false;
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Releases a permit obtained from {@link #tryAcquire()} without recording an outcome,
+     * e.g. when the request was abandoned by the caller.
+     */
+    public synchronized void release() {
+        probeInFlight = false;
+    }
+
+    /**
+     * Claims the next request for this backend if it has been ranked out of use for a while,
+     * so that its statistics reflect how it behaves now. Only one request per probe interval is claimed.
+     *
+     * @return true if the next request should be sent to this backend first
+     */
+    public synchronized boolean claimProbe() {
+        long now = clock.getAsLong();
+        if ( state != CircuitState.CLOSED || now - lastRequestNanos < probeIntervalNanos ) return false;
+        lastRequestNanos = now;
+        return true;
+    }
+
+    /**
+     * Records a successful request and closes the circuit.
+     *
+     * @param latencyNanos the time the request took in nanoseconds
+     */
+    public synchronized void recordSuccess( long latencyNanos ) {
+        decay();
+        successCount++;
+        consecutiveFailures = 0;
+        latencyAverageNanos = successCount == 1 ? latencyNanos : average( latencyAverageNanos, latencyNanos );
+        recordAttempt( 0.0, 0L );
+        probeInFlight = false;
+        state = CircuitState.CLOSED;
+    }
+
+    /**
+     * Records a failed request, opening the circuit if the failure threshold has been reached
+     * or if the failed request was a half-open probe.
+     *
+     * @param latencyNanos the time until the request failed in nanoseconds
+     */
+    public synchronized void recordFailure( long latencyNanos ) {
+        decay();
+        failureCount++;
+        consecutiveFailures++;
+        recordAttempt( 1.0, Math.max( latencyNanos, failureLatencyNanos ) );
+        probeInFlight = false;
+
+        if ( state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold ) {
+            state = CircuitState.OPEN;
+            openedAtNanos = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Records a request the backend rejected as invalid, e.g. with HTTP 400 for a model it does not
+     * know or a prompt exceeding its context window. The backend is healthy, so the circuit is left
+     * alone and only the time the rejection took is charged.
+     *
+     * @param latencyNanos the time until the request was rejected in nanoseconds
+     */
+    public synchronized void recordRejection( long latencyNanos ) {
+        decay();
+        failureCount++;
+        recordAttempt( 1.0, latencyNanos );
+        probeInFlight = false;
+    }
+
+    /**
+     * Returns the routing score of the backend; lower is better.
+     * The score is the average latency of successful requests plus the decayed time recently wasted on failures,
+     * so a backend without any requests yet scores zero and is tried early on.
+     *
+     * @return the routing score in nanoseconds
+     */
+    public synchronized double score() {
+        decay();
+        return latencyAverageNanos + penaltyNanos;
+    }
+
+    /**
+     * Returns the current circuit state.
+     *
+     * @return the circuit state
+     */
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    /**
+     * Adds the outcome of a request to the error rate and its wasted time to the penalty,
+     * the first request replacing the initial zero outright.
+     */
+    private void recordAttempt( double error, long wastedNanos ) {
+        boolean first = successCount + failureCount == 1;
+        errorRate = first ? error : average( errorRate, error );
+        penaltyNanos = first ? wastedNanos : average( penaltyNanos, wastedNanos );
+        lastRequestNanos = clock.getAsLong();
+    }
+
+    /**
+     * Lets the penalty and the error rate fade with the time passed since they were last decayed.
+     */
+    private void decay() {
+        long now = clock.getAsLong();
+        double factor = Math.pow( 0.5, (double) ( now - decayedAtNanos ) / penaltyHalfLifeNanos );
+        penaltyNanos *= factor;
+        errorRate *= factor;
+        decayedAtNanos = now;
+    }
+
+    private static double average( double current, double sample ) {
+        return current + SMOOTHING_FACTOR * ( sample - current );
+    }
+
+    @Override
+    public synchronized String toString() {
+        decay();
+        return String.format( "state=%s, latency=%dms, penalty=%dms, errorRate=%.0f%%, ok=%d, failed=%d",
+                              state,
+                              Math.round( latencyAverageNanos / 1_000_000.0 ),
+                              Math.round( penaltyNanos / 1_000_000.0 ),
+                              errorRate * 100.0,
+                              successCount,
+                              failureCount );
+    }
+}
@@ -0,0 +1,141 @@
+package com.jareid.openaiapp.api.backend;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theokanning.openai.client.OpenAiApi;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatCompletionResult;
+import com.theokanning.openai.service.OpenAiService;
+import okhttp3.OkHttpClient;
+import org.apache.commons.lang3.StringUtils;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+/**
+ * A single OpenAI-compatible chat completion endpoint, e.g. the OpenAI API itself or a self-hosted
+ * local model server exposing the same {@code /v1/chat/completions} API.
+ *
+ * <p> Each backend has its own {@link OpenAiService}, its own mapping from the model names used by
+ * the application to the model names the endpoint understands, and its own {@link BackendStats}.
+ *
+ * @author Jamie Reid
+ * @see BackendRouter
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class CompletionBackend {
+    /** The root URL of the OpenAI API. */
+    public static final String OPENAI_BASE_URL = "https://api.openai.com/";
+
+    /** The name of the backend as used in the configuration. */
+    private final String name;
+
+    /** The root URL of the backend, the API paths already contain {@code /v1}. */
+    private final String baseUrl;
+
+    /** The model used for every request if set, regardless of the requested model. */
+    private final String defaultModel;
+
+    /** A mapping from requested model names to the model names of this backend. */
+    private final Map<String, String> modelMapping;
+
+    /** The service used to talk to the backend. */
+    private final OpenAiService service;
+
+    /** The live statistics and circuit breaker of the backend. */
+    private final BackendStats stats;
+
+    /**
+     * Constructs a backend with an already created service.
+     *
+     * @param name         the name of the backend
+     * @param baseUrl      the root URL of the backend
+     * @param defaultModel the model to use for all requests, or null to use the mapping
+     * @param modelMapping a mapping from requested model names to backend model names
+     * @param service      the service used to talk to the backend
+     * @param stats        the statistics for the backend
+     */
+    public CompletionBackend( String name, String baseUrl, String defaultModel, Map<String, String> modelMapping,
+                              OpenAiService service, BackendStats stats ) {
+        this.name = name;
+        this.baseUrl = baseUrl;
+        this.defaultModel = defaultModel;
+        this.modelMapping = Collections.unmodifiableMap( new HashMap<>( modelMapping ) );
+        this.service = service;
+        this.stats = stats;
+    }
+
+    /**
+     * Creates an {@link OpenAiService} which talks to the given base URL, e.g. the OpenAI API or a local server.
+     * The HTTP calls of the service honour the deadline of the current request, see {@link DeadlineInterceptor}.
+     *
+     * @param baseUrl the root URL of the backend
+     * @param apiKey  the API key, local servers usually accept any value
+     * @param timeout the HTTP timeout of the service
+     * @return the created service
+     */
+    public static OpenAiService createService( String baseUrl, String apiKey, Duration timeout ) {
+        String token = StringUtils.isEmpty( apiKey ) ? "none" : apiKey;
+
+        ObjectMapper mapper = OpenAiService.defaultObjectMapper();
+        OkHttpClient client = OpenAiService.defaultClient( token, timeout ).newBuilder()
+                                                                           .addInterceptor( new DeadlineInterceptor() )
+                                                                           .build();
+        Retrofit retrofit = new Retrofit.Builder().baseUrl( baseUrl )
+                                                  .client( client )
+                                                  .addConverterFactory( JacksonConverterFactory.create( mapper ) )
+                                                  .addCallAdapterFactory( RxJava2CallAdapterFactory.create() )
+                                                  .build();
+
+        return new OpenAiService( retrofit.create( OpenAiApi.class ), client.dispatcher().executorService() );
+    }
+
+    /**
+     * Resolves the model name this backend should be asked for.
+     *
+     * @param requestedModel the model requested by the application
+     * @return the model name understood by this backend
+     */
+    public String resolveModel( String requestedModel ) {
+        if ( !StringUtils.isEmpty( defaultModel ) ) return defaultModel;
+        return modelMapping.getOrDefault( requestedModel, requestedModel );
+    }
+
+    /**
+     * Sends the request to this backend. The request must already carry the resolved model.
+     *
+     * @param request the chat completion request
+     * @return the result returned by the backend
+     */
+    public ChatCompletionResult createChatCompletion( ChatCompletionRequest request ) {
+        return service.createChatCompletion( request );
+    }
+
+    /**
+     * Returns the name of the backend.
+     *
+     * @return the name of the backend
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the live statistics of the backend.
+     *
+     * @return the statistics
+     */
+    public BackendStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + baseUrl + "): " + stats;
+    }
+}
@@ -0,0 +1,51 @@
+package com.jareid.openaiapp.api.backend;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import com.jareid.openaiapp.api.RequestContext;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Carries the deadline of the current {@link RequestContext} into each HTTP call.
+ *
+ * <p> The connect, read and write timeouts of the call are shortened to the time left until the
+ * deadline, and the call is registered with the context so that cancelling the request cancels the
+ * call and frees its connection immediately. Calls made outside of a request are left untouched.
+ *
+ * @author Jamie Reid
+ * @see RequestContext
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class DeadlineInterceptor implements Interceptor {
+    @Override
+    public Response intercept( Chain chain ) throws IOException {
+        RequestContext context = RequestContext.current();
+        if ( context == null ) return chain.proceed( chain.request() );
+        if ( context.isCancelled() ) throw new InterruptedIOException( context.cancellationException().getMessage() );
+
+        int remainingMillis = (int) Math.max( 1L, Math.min( Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis( context.remainingNanos() ) ) );
+        Chain deadlineChain = chain.withConnectTimeout( shorten( chain.connectTimeoutMillis(), remainingMillis ), TimeUnit.MILLISECONDS )
+                                   .withReadTimeout( shorten( chain.readTimeoutMillis(), remainingMillis ), TimeUnit.MILLISECONDS )
+                                   .withWriteTimeout( shorten( chain.writeTimeoutMillis(), remainingMillis ), TimeUnit.MILLISECONDS );
+
+        Call call = chain.call();
+        Runnable unregister = context.onCancel( call::cancel );
+        try {
+            return deadlineChain.proceed( chain.request() );
+        } finally {
+            unregister.run();
+        }
+    }
+
+    /**
+     * Returns the smaller of the two timeouts, where zero means no timeout at all.
+     */
+    private static int shorten( int timeoutMillis, int remainingMillis ) {
+        return timeoutMillis == 0 ? remainingMillis : Math.min( timeoutMillis, remainingMillis );
+    }
+}
@@ -0,0 +1,177 @@
+package com.jareid.openaiapp.api.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits large UTF-8 text files into chunks small enough to send to the GPT model.
+ *
+ * <p> The file is memory-mapped and decoded lazily into a window of at most {@code maxChars}
+ * characters: a chunk is only decoded when the caller asks for it, so the caller decides how many
+ * chunks are held in memory no matter how large the file is. Each chunk is cut at the most natural
+ * boundary in the second half of the window: a blank line, then a line break, then whitespace, and
+ * only if none of those exist in the middle of the text.
+ *
+ * @author Jamie Reid
+ * @see MapReduceProcessor
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class FileChunker {
+    /** The rough number of characters per token for English text and source code. */
+    public static final int CHARS_PER_TOKEN = 4;
+
+    /** The smallest chunk size accepted, anything below is not useful to the model. */
+    private static final int MIN_CHARS = 64;
+
+    /** The maximum number of characters in a chunk. */
+    private final int maxChars;
+
+    /**
+     * Constructs a chunker producing chunks of at most the given number of tokens.
+     *
+     * @param maxTokens the estimated maximum number of tokens per chunk
+     */
+    public FileChunker( int maxTokens ) {
+        this.maxChars = Math.max( MIN_CHARS, maxTokens * CHARS_PER_TOKEN );
+    }
+
+    /**
+     * Maps the file into memory and returns its chunks, each decoded when it is asked for.
+     * The mapping stays valid after this method returns and is released once the iterator is unreachable.
+     *
+     * @param path the file to split
+     * @return the chunks in file order, chunks consisting only of whitespace are left out
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is too large to be mapped
+     */
+    public Iterator< String > split( Path path ) throws IOException {
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ) ) {
+            long size = channel.size();
+            if ( size > Integer.MAX_VALUE ) throw new IllegalArgumentException( "File " + path + " is too large, the maximum is 2GB" );
+
+            MappedByteBuffer bytes = channel.map( FileChannel.MapMode.READ_ONLY, 0, size );
+            return split( bytes );
+        }
+    }
+
+    /**
+     * Returns the chunks of the UTF-8 encoded text, each decoded when it is asked for.
+     *
+     * @param bytes the encoded text, consumed by the iterator
+     * @return the chunks in order, chunks consisting only of whitespace are left out
+     */
+    public Iterator< String > split( ByteBuffer bytes ) {
+        return new ChunkIterator( bytes );
+    }
+
+    /**
+     * Finds the most natural place to cut the window, searching its second half only so that
+     * chunks stay reasonably large.
+     *
+     * @param window the decoded characters, positioned at zero
+     * @return the number of characters to take from the window
+     */
+    private static int findBoundary( CharBuffer window ) {
+        int limit = window.limit();
+        int floor = limit / 2;
+
+        for ( int i = limit - 1; i > floor; i-- ) {
+            if ( endsBlankLine( window, i ) ) return i + 1;
+        }
+        for ( int i = limit - 1; i >= floor; i-- ) {
+            if ( window.get( i ) == '\n' ) return i + 1;
+        }
+        for ( int i = limit - 1; i >= floor; i-- ) {
+            if ( Character.isWhitespace( window.get( i ) ) ) return i + 1;
+        }
+
+        // Never separate the two halves of a surrogate pair
+        return Character.isHighSurrogate( window.get( limit - 1 ) ) ? limit - 1 : limit;
+    }
+
+    /**
+     * Checks whether the character at the index is the line feed ending a blank line, treating
+     * "\r\n" as a single line break so that files with Windows line endings split at paragraphs too.
+     *
+     * @param window the decoded characters, positioned at zero
+     * @param index the index of the character to check, at least one
+     * @return true if the character ends a line which directly follows another line break
+     */
+    private static boolean endsBlankLine( CharBuffer window, int index ) {
+        if ( window.get( index ) != '\n' ) return false;
+        if ( window.get( index - 1 ) == '\n' ) return true;
+        return index >= 2 && window.get( index - 1 ) == '\r' && window.get( index - 2 ) == '\n';
+    }
+
+    /**
+     * Decodes the next chunk of the text on demand, keeping a single chunk decoded ahead.
+     */
+    private class ChunkIterator implements Iterator< String > {
+        private final ByteBuffer bytes;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                                                                     .onMalformedInput( CodingErrorAction.REPLACE )
+                                                                     .onUnmappableCharacter( CodingErrorAction.REPLACE );
+        private final CharBuffer window = CharBuffer.allocate( maxChars );
+        private boolean endOfInput = false;
+
+        /** The next chunk, or null if it has not been decoded yet or the text is exhausted. */
+        private String next;
+
+        ChunkIterator( ByteBuffer bytes ) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if ( next == null ) next = decodeNext();
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if ( !hasNext() ) throw new NoSuchElementException();
+            String chunk = next;
+            next = null;
+            return chunk;
+        }
+
+        /**
+         * Decodes up to the next chunk which is not blank.
+         *
+         * @return the chunk, or null at the end of the text
+         */
+        private String decodeNext() {
+            while ( true ) {
+                if ( !endOfInput ) {
+                    decoder.decode( bytes, window, true );
+                    if ( !bytes.hasRemaining() ) {
+                        decoder.flush( window );
+                        endOfInput = true;
+                    }
+                }
+
+                window.flip();
+                if ( !window.hasRemaining() ) return null;
+
+                // Everything left fits in one chunk once the whole input is decoded
+                int cut = endOfInput && window.remaining() < maxChars ? window.remaining() : findBoundary( window );
+                String chunk = window.subSequence( 0, cut ).toString();
+
+                window.position( cut );
+                window.compact();
+                if ( !chunk.isBlank() ) return chunk;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.jareid.openaiapp.api.input;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * A question about a file, written as {@code @path question} or {@code @"path with spaces" question}.
+ * The unquoted form only applies to existing files, so that other input starting with {@code @} stays ordinary chat.
+ *
+ * @author Jamie Reid
+ * @see MapReduceProcessor
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class FileInputRequest {
+    /** The question asked when the user gives none. */
+    private static final String DEFAULT_QUESTION = "Summarise the content of this file.";
+
+    /** The file the question is about. */
+    private final Path path;
+
+    /** The question about the file. */
+    private final String question;
+
+    /**
+     * Constructs a request for the given file and question.
+     *
+     * @param path     the file the question is about
+     * @param question the question, a summary is asked for if blank
+     */
+    public FileInputRequest( Path path, String question ) {
+        this.path = path;
+        this.question = question == null || question.isBlank() ? DEFAULT_QUESTION : question.trim();
+    }
+
+    /**
+     * Returns whether the user input asks about a file: either {@code @"path"}, which always names a file,
+     * or {@code @path} naming an existing file. Any other input starting with {@code @}, such as pasted
+     * code starting with {@code @Override} or a mention, is ordinary chat.
+     *
+     * @param userInput the input from the command line or from the UI
+     * @return true if the input asks about a file
+     */
+    public static boolean isFileRequest( String userInput ) {
+        if ( userInput == null || !userInput.startsWith( "@" ) ) return false;
+        if ( userInput.startsWith( "@\"" ) ) return true;
+        return isRegularFile( unquotedPath( userInput ) );
+    }
+
+    /**
+     * Parses user input of the form {@code @path question} or {@code @"path" question}.
+     *
+     * @param userInput the input from the command line or from the UI
+     * @return the request, or null if the input does not ask about a file, see {@link #isFileRequest(String)}
+     * @throws FileNotFoundException if the input names a file in quotes which does not exist or is not a regular file
+     */
+    public static FileInputRequest parse( String userInput ) throws FileNotFoundException {
+        if ( !isFileRequest( userInput ) ) return null;
+
+        String pathText;
+        String question;
+        if ( userInput.startsWith( "@\"" ) ) {
+            int closingQuote = userInput.indexOf( '"', 2 );
+            pathText = closingQuote < 0 ? userInput.substring( 2 ) : userInput.substring( 2, closingQuote );
+            question = closingQuote < 0 ? "" : userInput.substring( closingQuote + 1 );
+        } else {
+            int space = userInput.indexOf( ' ' );
+            pathText = unquotedPath( userInput );
+            question = space < 0 ? "" : userInput.substring( space + 1 );
+        }
+
+        if ( !isRegularFile( pathText ) ) throw new FileNotFoundException( "File not found: " + pathText );
+        return new FileInputRequest( Paths.get( pathText ), question );
+    }
+
+    private static String unquotedPath( String userInput ) {
+        int space = userInput.indexOf( ' ' );
+        return space < 0 ? userInput.substring( 1 ) : userInput.substring( 1, space );
+    }
+
+    private static boolean isRegularFile( String pathText ) {
+        if ( pathText.isEmpty() ) return false;
+        try {
+            return Files.isRegularFile( Paths.get( pathText ) );
+        } catch ( InvalidPathException invalidPathException ) {
+            return false;
+        }
+    }
+
+    /**
+     * Formats the user input which asks about the given file, the inverse of {@link #parse(String)}.
+     *
+     * @param path     the file
+     * @param question the question, may be empty
+     * @return the user input
+     */
+    public static String format( String path, String question ) {
+        return "@\"" + path + "\" " + question;
+    }
+
+    /**
+     * Returns the file the question is about.
+     *
+     * @return the file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the question about the file.
+     *
+     * @return the question
+     */
+    public String getQuestion() {
+        return question;
+    }
+}
@@ -0,0 +1,246 @@
+package com.jareid.openaiapp.api.input;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import com.jareid.openaiapp.api.RequestContext;
+
+/**
+ * Answers a question about a file too large for a single request to the GPT model.
+ *
+ * <p> The question is asked about every chunk of the file in parallel (map), with at most
+ * {@code concurrency} requests in flight. Chunks are taken from the iterator only as requests
+ * finish, so no more than {@code concurrency} chunks are held in memory at once. The partial answers are then combined by the model into
+ * a single answer (reduce). If the partial answers are themselves too long for one request they are
+ * reduced in groups, in parallel, until a single answer remains.
+ *
+ * <p> Each stage of chunk requests runs on the given executor under a child of the calling thread's
+ * {@link RequestContext}, so cancelling the file request cancels every chunk request with it. If any
+ * chunk request fails, the child context is cancelled, which aborts the remaining chunk requests'
+ * HTTP calls straight away, and the failure is reported.
+ *
+ * @author Jamie Reid
+ * @see FileChunker
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public class MapReduceProcessor {
+    /** The time allowed for a stage when the processor is used outside of a request. */
+    private static final Duration UNBOUNDED_STAGE = Duration.ofDays( 1 );
+
+    /**
+     * Sends a prompt to the GPT model and returns its answer.
+     */
+    @FunctionalInterface
+    public interface Model {
+        /**
+         * Asks the GPT model.
+         *
+         * @param prompt the prompt
+         * @return the answer of the model
+         * @throws InterruptedException if the thread is interrupted while waiting for the answer
+         */
+        String ask( String prompt ) throws InterruptedException;
+    }
+
+    /** The executor running the chunk requests. */
+    private final Executor executor;
+
+    /** The maximum number of chunk requests in flight at once. */
+    private final int concurrency;
+
+    /** The maximum number of characters in a single request. */
+    private final int maxChars;
+
+    /** Sends a prompt to the GPT model and returns its answer. */
+    private final Model model;
+
+    /** Receives progress and timing messages. */
+    private final Consumer< String > progress;
+
+    /**
+     * Constructs a processor.
+     *
+     * @param executor    the executor running the chunk requests
+     * @param concurrency the maximum number of chunk requests in flight at once
+     * @param maxTokens   the estimated maximum number of tokens in a single request
+     * @param model       sends a prompt to the GPT model and returns its answer
+     * @param progress    receives progress and timing messages
+     */
+    public MapReduceProcessor( Executor executor, int concurrency, int maxTokens,
+                               Model model, Consumer< String > progress ) {
+        if ( concurrency < 1 ) throw new IllegalArgumentException( "The concurrency must be at least 1" );
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.maxChars = maxTokens * FileChunker.CHARS_PER_TOKEN;
+        this.model = model;
+        this.progress = progress;
+    }
+
+    /**
+     * Answers the question about the chunks of a file.
+     *
+     * @param fileName the name of the file, shown to the model
+     * @param chunks   the chunks of the file in order, taken as chunk requests are started
+     * @param question the question about the file
+     * @return the combined answer
+     * @throws InterruptedException if the calling thread is interrupted
+     * @throws CancellationException if the current request is cancelled or past its deadline
+     * @throws IllegalStateException if a chunk request failed
+     */
+    public String process( String fileName, Iterator< String > chunks, String question ) throws InterruptedException {
+        if ( !chunks.hasNext() ) throw new IllegalArgumentException( "File " + fileName + " contains no text" );
+
+        String first = chunks.next();
+        if ( !chunks.hasNext() ) {
+            return runAll( "Question", List.of( singlePrompt( fileName, first, question ) ).iterator() ).get( 0 );
+        }
+
+        Iterator< String > mapPrompts = new Iterator<>() {
+            private String pending = first;
+            private int part = 0;
+
+            @Override
+            public boolean hasNext() {
+                return pending != null || chunks.hasNext();
+            }
+
+            @Override
+            public String next() {
+                String chunk = pending != null ? pending : chunks.next();
+                pending = null;
+                return mapPrompt( fileName, ++part, chunk, question );
+            }
+        };
+        List< String > answers = runAll( "Map", mapPrompts );
+
+        while ( answers.size() > 1 ) {
+            List< String > reducePrompts = new ArrayList<>();
+            for ( List< String > group : groupAnswers( answers ) ) reducePrompts.add( reducePrompt( fileName, group, question ) );
+            answers = runAll( "Reduce", reducePrompts.iterator() );
+        }
+        return answers.get( 0 );
+    }
+
+    /**
+     * Sends every prompt to the model with at most {@code concurrency} in flight, failing fast.
+     * The next prompt is only taken from the iterator once a request slot is free.
+     *
+     * @param stage   the name of the stage, used in progress messages
+     * @param prompts the prompts to send
+     * @return the answers in the order of the prompts
+     */
+    private List< String > runAll( String stage, Iterator< String > prompts ) throws InterruptedException {
+        RequestContext parent = RequestContext.current();
+        RequestContext context = parent != null ? parent.createChild() : new RequestContext( UNBOUNDED_STAGE );
+        CompletionService< String > completionService = new ExecutorCompletionService<>( executor );
+        Map< Future< String >, Integer > partNumbers = new HashMap<>();
+        List< String > answers = new ArrayList<>();
+        long stageStart = System.nanoTime();
+
+        try {
+            int submitted = 0;
+            int completed = 0;
+            while ( true ) {
+                while ( submitted - completed < concurrency && prompts.hasNext() ) {
+                    String prompt = prompts.next();
+                    int part = ++submitted;
+                    partNumbers.put( completionService.submit( () -> {
+                        long start = System.nanoTime();
+                        String answer = context.call( () -> model.ask( prompt ) );
+                        progress.accept( String.format( "%s part %d done in %.1fs", stage, part, seconds( start ) ) );
+                        return answer;
+                    } ), part );
+                    answers.add( null );
+                }
+                if ( completed == submitted ) break;
+
+                Future< String > done = completionService.take();
+                int part = partNumbers.get( done );
+                try {
+                    answers.set( part - 1, done.get() );
+                    completed++;
+                } catch ( ExecutionException executionException ) {
+                    Throwable cause = executionException.getCause();
+                    if ( cause instanceof CancellationException ) throw (CancellationException) cause;
+                    throw new IllegalStateException( stage + " of part " + part + " failed: " + cause.getMessage(), cause );
+                }
+            }
+        } finally {
+            // Abort the HTTP calls of any chunk request still running after a failure or cancellation,
+            // interrupting the threads alone cannot stop a blocking call
+            context.cancel();
+            partNumbers.keySet().forEach( future -> future.cancel( true ) );
+        }
+
+        progress.accept( String.format( "%s of %d part(s) finished in %.1fs", stage, answers.size(), seconds( stageStart ) ) );
+        return answers;
+    }
+
+    /**
+     * Groups the partial answers so that each group fits in a single reduce request.
+     * Every group holds at least two answers so that each round makes progress.
+     */
+    private List< List< String > > groupAnswers( List< String > answers ) {
+        List< List< String > > groups = new ArrayList<>();
+        List< String > group = new ArrayList<>();
+        int groupChars = 0;
+        for ( String answer : answers ) {
+            if ( group.size() >= 2 && groupChars + answer.length() > maxChars ) {
+                groups.add( group );
+                group = new ArrayList<>();
+                groupChars = 0;
+            }
+            group.add( answer );
+            groupChars += answer.length();
+        }
+        // A lone answer left over joins the previous group rather than being reduced on its own
+        if ( group.size() == 1 && !groups.isEmpty() ) groups.get( groups.size() - 1 ).add( group.get( 0 ) );
+        else groups.add( group );
+        return groups;
+    }
+
+    private static String singlePrompt( String fileName, String content, String question ) {
+        return question + System.lineSeparator() + System.lineSeparator()
+               + "The content of the file " + fileName + ":" + System.lineSeparator()
+               + content;
+    }
+
+    private static String mapPrompt( String fileName, int part, String content, String question ) {
+        return "The following is part " + part + " of the file " + fileName + ". "
+               + "Answer the question below using only this part, your answer will be combined with the answers for the other parts. "
+               + "If this part is not relevant to the question, say so in one sentence." + System.lineSeparator()
+               + "Question: " + question + System.lineSeparator() + System.lineSeparator()
+               + content;
+    }
+
+    private static String reducePrompt( String fileName, List< String > answers, String question ) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append( "The following are answers to the question below, each based on a different part of the file " )
+              .append( fileName )
+              .append( ". Combine them into a single coherent answer to the question, dropping anything irrelevant or repeated." )
+              .append( System.lineSeparator() )
+              .append( "Question: " ).append( question ).append( System.lineSeparator() );
+        for ( int i = 0; i < answers.size(); i++ ) {
+            prompt.append( System.lineSeparator() )
+                  .append( "Answer " ).append( i + 1 ).append( ':' ).append( System.lineSeparator() )
+                  .append( answers.get( i ) ).append( System.lineSeparator() );
+        }
+        return prompt.toString();
+    }
+
+    private static double seconds( long startNanos ) {
+        return ( System.nanoTime() - startNanos ) / 1_000_000_000.0;
+    }
+}
@@ -1,12 +1,16 @@
 package com.jareid.openaiapp.ui;
 
 import com.jareid.openaiapp.api.APIHandler;
+import com.jareid.openaiapp.api.RequestFuture;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.vladsch.flexmark.html2md.converter.FlexmarkHtmlConverter;
 import com.vladsch.flexmark.util.data.MutableDataSet;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 
 
@@ -18,7 +22,9 @@ import java.awt.*;
  * 1. A text field for the user to enter their input.
  * 2. A text area to display the output from the OpenAI GPT model.
  *
- * <p> A "Send" button is used to submit the user's input to the model.
+ * <p> A "Send" button is used to submit the user's input to the model, the request runs in the background
+ * and can be abandoned with the "Cancel" button.
+ * While a question about a file is processed, its progress is shown above the buttons.
  *
  * <p> This class is a basic example and does not follow the Model-View-Controller (MVC) design pattern.
  * In a more complex application, following the MVC pattern would be recommended.
@@ -33,12 +39,29 @@ public class UserInterfaceScreen {
     private final JTextField userInputField;
     private final JEditorPane outputArea;
 
+    /** Shows the progress of the current request. */
+    private final JLabel statusLabel;
+
+    /** The worker currently waiting for a response, if any. */
+    private SwingWorker< ChatMessage, String > currentWorker;
+
     /**
      * Constructs a new MainScreen object with the specified CLI.
      *
      * @param cli The command line interface for interacting with the OpenAI GPT model.
      */
     public UserInterfaceScreen(APIHandler cli) {
+        this(cli, "");
+    }
+
+    /**
+     * Constructs a new MainScreen object with the specified CLI and text already in the input field,
+     * e.g. {@code @"path" } to ask about a file given on the command line.
+     *
+     * @param cli          The command line interface for interacting with the OpenAI GPT model.
+     * @param initialInput The text to place in the input field.
+     */
+    public UserInterfaceScreen(APIHandler cli, String initialInput) {
 
         JFrame frame = new JFrame("OpenAI CLI");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -94,7 +117,7 @@ public class UserInterfaceScreen {
         toolBar.add(aboutButton);
 
         // User input field
-        userInputField = new JTextField();
+        userInputField = new JTextField(initialInput);
         userInputField.setPreferredSize(new Dimension(400, 30));
 
         // Top panel to hold the toolbar and user input field
@@ -113,31 +136,89 @@ public class UserInterfaceScreen {
          * at which point it takes the user's input and sends it to the OpenAI GPT model.
          */
         JButton sendButton = new JButton("Send");
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        statusLabel = new JLabel(" ");
+
         sendButton.addActionListener(e -> {
             String userInput = userInputField.getText(); // Get User's input
-            try {
-                ChatMessage response = cli.askGPT_GetResponse(userInput); // Pass user input to OpenAI
-
-                // Generate our response using HTML <br> tags for new lines
-                String output = "**You:** " + userInput + "<br><br>" +
-                        "**OpenAI:** " + response.getContent() + "<br>";
-
-                // Convert Markdown to HTML using Flexmark
-                MutableDataSet options = new MutableDataSet();
-                String document = FlexmarkHtmlConverter.builder(options).build().convert(output);
-
-                // Set HTML content
-                outputArea.setText( document );
-                userInputField.setText(""); // Wipe user input
-            } catch (Exception exception) {
-                showErrorDialog("Error with the ChatGPT API occurred: " + exception.getMessage() );
-            }
+            sendButton.setEnabled(false);
+            cancelButton.setEnabled(true);
+            statusLabel.setText("Waiting for the response...");
+
+            // Wait for the response off the event dispatch thread so the window stays responsive,
+            // progress of a file request is published to the status label as it arrives
+            currentWorker = new SwingWorker<>() {
+                private RequestFuture< ChatMessage > request;
+
+                @Override
+                protected ChatMessage doInBackground() throws Exception {
+                    request = cli.askGPT_GetResponseAsync(userInput, this::publish); // Pass user input to OpenAI
+                    try {
+                        return request.get();
+                    } finally {
+                        request.cancel(true);   // Aborts the HTTP call if the user cancelled while waiting
+                    }
+                }
+
+                @Override
+                protected void process(List<String> messages) {
+                    statusLabel.setText(messages.get(messages.size() - 1));
+                }
+
+                @Override
+                protected void done() {
+                    currentWorker = null;
+                    sendButton.setEnabled(true);
+                    cancelButton.setEnabled(false);
+                    statusLabel.setText(" ");
+                    try {
+                        ChatMessage response = get();
+
+                        // Generate our response using HTML <br> tags for new lines
+                        String output = "**You:** " + userInput + "<br><br>" +
+                                "**OpenAI:** " + response.getContent() + "<br>";
+
+                        // Convert Markdown to HTML using Flexmark
+                        MutableDataSet options = new MutableDataSet();
+                        String document = FlexmarkHtmlConverter.builder(options).build().convert(output);
+
+                        // Set HTML content
+                        outputArea.setText( document );
+                        userInputField.setText(""); // Wipe user input
+                    } catch (CancellationException cancellationException) {
+                        // Cancelled with the "Cancel" button, which is the user's choice, not an error
+                    } catch (ExecutionException exception) {
+                        Throwable cause = exception.getCause();
+                        // A cancelled request is the user's choice, not an error, a missed deadline is
+                        if ( !(cause instanceof CancellationException) || request.isExpired() ) {
+                            showErrorDialog("Error with the ChatGPT API occurred: " + cause.getMessage() );
+                        }
+                    } catch (Exception exception) {
+                        showErrorDialog("Error with the ChatGPT API occurred: " + exception.getMessage() );
+                    }
+                }
+            };
+            currentWorker.execute();
         });
 
+        cancelButton.addActionListener(e -> {
+            if (currentWorker != null) currentWorker.cancel(true);
+        });
+
+        // Bottom panel to hold the send and cancel buttons
+        JPanel bottomPanel = new JPanel(new GridLayout(1, 2));
+        bottomPanel.add(sendButton);
+        bottomPanel.add(cancelButton);
+
+        // Status label above the buttons showing the progress of a file request
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(statusLabel, BorderLayout.NORTH);
+        southPanel.add(bottomPanel, BorderLayout.SOUTH);
 
         panel.add(topPanel, BorderLayout.PAGE_START);   // Changed from toolBar to topPanel
         panel.add(new JScrollPane(outputArea), BorderLayout.CENTER);
-        panel.add(sendButton, BorderLayout.SOUTH);
+        panel.add(southPanel, BorderLayout.SOUTH);
 
         frame.getContentPane().add(panel);
         frame.setVisible(true);
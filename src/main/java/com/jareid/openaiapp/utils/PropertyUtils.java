@@ -0,0 +1,36 @@
+package com.jareid.openaiapp.utils;
+
+import java.util.Properties;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Reads typed values from the application properties.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+public final class PropertyUtils {
+    private PropertyUtils() {
+    }
+
+    /**
+     * Reads a whole number property.
+     *
+     * @param properties   the loaded properties
+     * @param key          the key of the property
+     * @param defaultValue the value used if the property is not set or blank
+     * @return the value of the property
+     * @throws IllegalArgumentException if the property is set but not a whole number
+     */
+    public static int getIntProperty( Properties properties, String key, int defaultValue ) {
+        String value = properties.getProperty( key );
+        if ( StringUtils.isBlank( value ) ) return defaultValue;
+        try {
+            return Integer.parseInt( value.trim() );
+        } catch ( NumberFormatException numberFormatException ) {
+            throw new IllegalArgumentException( "Property " + key + " must be a whole number but was: " + value );
+        }
+    }
+}
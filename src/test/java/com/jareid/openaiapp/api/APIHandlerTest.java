@@ -0,0 +1,76 @@
+package com.jareid.openaiapp.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the parts of {@link APIHandler} which do not need a backend, i.e. writing code files.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class APIHandlerTest {
+    private final File codeFile = new File( System.getProperty( "java.io.tmpdir" ), "APIHandlerTest-" + System.nanoTime() + ".java" );
+
+    @AfterEach
+    void deleteCodeFile() throws IOException {
+        Files.deleteIfExists( codeFile.toPath() );
+    }
+
+    @Test
+    void codeBlocksAreWrittenOnePerLine() throws IOException {
+        APIHandler.writeCode( codeFile, List.of( "class A {}", "class B {}" ) );
+
+        assertEquals( List.of( "class A {}", "class B {}" ), Files.readAllLines( codeFile.toPath() ) );
+    }
+
+    @Test
+    void partialCodeFileIsDeletedOnCancellation() {
+        RequestContext context = new RequestContext( Duration.ofMinutes( 1 ) );
+        // The request is cancelled after the first block has been written
+        List< String > codeList = new AbstractList<>() {
+            @Override
+            public String get( int index ) {
+                if ( index == 1 ) context.cancel();
+                return "class Block" + index + " {}";
+            }
+
+            @Override
+            public int size() {
+                return 3;
+            }
+        };
+
+        assertThrows( CancellationException.class, () -> context.call( () -> {
+            APIHandler.writeCode( codeFile, codeList );
+            return null;
+        } ) );
+        assertFalse( Files.exists( codeFile.toPath() ) );
+    }
+
+    @Test
+    void noCodeFileIsLeftForAnExpiredRequest() {
+        RequestContext context = new RequestContext( Duration.ofMinutes( 1 ) );
+        context.expire();
+
+        CancellationException cancellation = assertThrows( CancellationException.class, () -> context.call( () -> {
+            APIHandler.writeCode( codeFile, List.of( "class A {}" ) );
+            return null;
+        } ) );
+        assertEquals( "Request deadline of 60s exceeded", cancellation.getMessage() );
+        assertFalse( Files.exists( codeFile.toPath() ) );
+    }
+}
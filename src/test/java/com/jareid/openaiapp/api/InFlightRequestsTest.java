@@ -0,0 +1,155 @@
+package com.jareid.openaiapp.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link InFlightRequests}.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class InFlightRequestsTest {
+    private final InFlightRequests< String, String > requests = new InFlightRequests<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneUpstreamCall() throws Exception {
+        CountDownLatch release = new CountDownLatch( 1 );
+        Future< String > leader = executor.submit( () -> requests.execute( "key", () -> {
+            await( release );
+            return "answer";
+        } ) );
+        awaitUpstreamCalls( 1 );
+
+        Future< String > follower = submitAttached( () -> requests.execute( "key", () -> "second answer" ) );
+        release.countDown();
+
+        assertEquals( "answer", leader.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( "answer", follower.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( 1, requests.getUpstreamCalls() );
+        assertEquals( 1, requests.getCoalescedCalls() );
+    }
+
+    @Test
+    void failureIsSharedWithAttachedRequests() throws Exception {
+        IllegalStateException failure = new IllegalStateException( "backend down" );
+        CountDownLatch release = new CountDownLatch( 1 );
+        Future< String > leader = executor.submit( () -> requests.execute( "key", () -> {
+            await( release );
+            throw failure;
+        } ) );
+        awaitUpstreamCalls( 1 );
+
+        Future< String > follower = submitAttached( () -> requests.execute( "key", () -> "second answer" ) );
+        release.countDown();
+
+        assertSame( failure, causeOf( leader ) );
+        assertSame( failure, causeOf( follower ) );
+        assertEquals( 1, requests.getUpstreamCalls() );
+    }
+
+    @Test
+    void attachedRequestRetriesWhenTheLeaderIsCancelled() throws Exception {
+        RequestContext leaderContext = new RequestContext( Duration.ofMinutes( 1 ) );
+        CountDownLatch release = new CountDownLatch( 1 );
+        Future< String > leader = executor.submit( () -> leaderContext.call( () -> requests.execute( "key", () -> {
+            await( release );
+            throw leaderContext.cancellationException();
+        } ) ) );
+        awaitUpstreamCalls( 1 );
+
+        Future< String > follower = submitAttached( () -> requests.execute( "key", () -> "second answer" ) );
+        leaderContext.cancel();
+        release.countDown();
+
+        assertEquals( "second answer", follower.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( 2, requests.getUpstreamCalls() );
+        assertEquals( 0, requests.getCoalescedCalls() );
+        assertTrue( causeOf( leader ) instanceof CancellationException );
+    }
+
+    @Test
+    void finishedRequestsAreNotShared() throws Exception {
+        assertEquals( "first", requests.execute( "key", () -> "first" ) );
+        assertThrows( IllegalStateException.class, () -> requests.execute( "key", () -> {
+            throw new IllegalStateException( "failed" );
+        } ) );
+        assertEquals( "third", requests.execute( "key", () -> "third" ) );
+
+        assertEquals( 3, requests.getUpstreamCalls() );
+        assertEquals( 0, requests.getCoalescedCalls() );
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() throws Exception {
+        assertEquals( "a", requests.execute( "a", () -> "a" ) );
+        assertEquals( "b", requests.execute( "b", () -> "b" ) );
+        assertEquals( 2, requests.getUpstreamCalls() );
+    }
+
+    private void awaitUpstreamCalls( long calls ) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 5 );
+        while ( requests.getUpstreamCalls() < calls ) {
+            if ( System.nanoTime() > deadline ) throw new AssertionError( "The upstream call was never made" );
+            Thread.sleep( 1 );
+        }
+    }
+
+    /**
+     * Submits a request expected to attach to the flight in progress, and waits until it is blocked on it.
+     */
+    private Future< String > submitAttached( Callable< String > request ) throws InterruptedException {
+        AtomicReference< Thread > thread = new AtomicReference<>();
+        Future< String > future = executor.submit( () -> {
+            thread.set( Thread.currentThread() );
+            return request.call();
+        } );
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 5 );
+        while ( thread.get() == null || thread.get().getState() != Thread.State.WAITING ) {
+            if ( System.nanoTime() > deadline ) throw new AssertionError( "The request never attached" );
+            Thread.sleep( 1 );
+        }
+        return future;
+    }
+
+    private static void await( CountDownLatch latch ) {
+        try {
+            if ( !latch.await( 5, TimeUnit.SECONDS ) ) throw new AssertionError( "The test never released the call" );
+        } catch ( InterruptedException interruptedException ) {
+            throw new AssertionError( interruptedException );
+        }
+    }
+
+    private static Throwable causeOf( Future< ? > future ) throws Exception {
+        try {
+            future.get( 5, TimeUnit.SECONDS );
+        } catch ( ExecutionException executionException ) {
+            return executionException.getCause();
+        }
+        throw new AssertionError( "The request did not fail" );
+    }
+}
@@ -0,0 +1,154 @@
+package com.jareid.openaiapp.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RequestContext}.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class RequestContextTest {
+    private final RequestContext context = new RequestContext( Duration.ofMinutes( 1 ) );
+
+    @Test
+    void cancelledRequestSaysSo() {
+        context.cancel();
+
+        assertTrue( context.isCancelled() );
+        assertFalse( context.isExpired() );
+        assertEquals( "Request cancelled", context.cancellationException().getMessage() );
+    }
+
+    @Test
+    void expiredRequestNamesItsDeadline() {
+        context.expire();
+
+        assertTrue( context.isCancelled() );
+        assertTrue( context.isExpired() );
+        assertEquals( "Request deadline of 60s exceeded", context.cancellationException().getMessage() );
+    }
+
+    @Test
+    void passedDeadlineStopsTheRequestBeforeItExpires() throws InterruptedException {
+        RequestContext shortContext = new RequestContext( Duration.ofMillis( 5 ) );
+        Thread.sleep( 20 );
+
+        assertTrue( shortContext.isCancelled() );
+        assertFalse( shortContext.isExpired() );
+        assertEquals( "Request deadline of 5ms exceeded", shortContext.cancellationException().getMessage() );
+    }
+
+    @Test
+    void hooksRunOnceOnCancellation() {
+        AtomicInteger runs = new AtomicInteger();
+        context.onCancel( runs::incrementAndGet );
+        context.onCancel( runs::incrementAndGet );
+
+        context.cancel();
+        context.cancel();
+
+        assertEquals( 2, runs.get() );
+        assertEquals( 0, context.registeredHooks() );
+    }
+
+    @Test
+    void hookRunsImmediatelyWhenAlreadyCancelled() {
+        AtomicInteger runs = new AtomicInteger();
+        context.cancel();
+
+        context.onCancel( runs::incrementAndGet );
+
+        assertEquals( 1, runs.get() );
+        assertEquals( 0, context.registeredHooks() );
+    }
+
+    @Test
+    void unregisteredHookDoesNotRun() {
+        AtomicInteger runs = new AtomicInteger();
+        Runnable unregister = context.onCancel( runs::incrementAndGet );
+
+        unregister.run();
+        context.cancel();
+
+        assertEquals( 0, runs.get() );
+    }
+
+    @Test
+    void childIsCancelledWithItsParent() {
+        RequestContext child = context.createChild();
+
+        context.cancel();
+
+        assertTrue( child.isCancelled() );
+        assertFalse( child.isExpired() );
+    }
+
+    @Test
+    void childExpiresWithItsParent() {
+        RequestContext child = context.createChild();
+
+        context.expire();
+
+        assertTrue( child.isExpired() );
+        assertEquals( "Request deadline of 60s exceeded", child.cancellationException().getMessage() );
+    }
+
+    @Test
+    void cancellingTheChildUnlinksItFromItsParent() {
+        RequestContext child = context.createChild();
+        assertEquals( 1, context.registeredHooks() );
+
+        child.cancel();
+
+        assertFalse( context.isCancelled() );
+        assertEquals( 0, context.registeredHooks() );
+    }
+
+    @Test
+    void childSharesTheDeadline() {
+        RequestContext child = context.createChild();
+
+        assertTrue( Math.abs( child.remainingNanos() - context.remainingNanos() ) < Duration.ofSeconds( 1 ).toNanos() );
+    }
+
+    @Test
+    void callBindsTheContextToTheThread() throws Exception {
+        RequestContext inner = new RequestContext( Duration.ofMinutes( 1 ) );
+
+        context.call( () -> {
+            assertSame( context, RequestContext.current() );
+            inner.call( () -> {
+                assertSame( inner, RequestContext.current() );
+                return null;
+            } );
+            assertSame( context, RequestContext.current() );
+            return null;
+        } );
+
+        assertNull( RequestContext.current() );
+    }
+
+    @Test
+    void currentCancellationIsThrownOnlyWithinACancelledRequest() throws Exception {
+        RequestContext.throwIfCurrentCancelled();
+        context.cancel();
+
+        assertThrows( CancellationException.class, () -> context.call( () -> {
+            RequestContext.throwIfCurrentCancelled();
+            return null;
+        } ) );
+    }
+}
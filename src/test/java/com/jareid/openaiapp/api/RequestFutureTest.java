@@ -0,0 +1,114 @@
+package com.jareid.openaiapp.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RequestFuture}.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class RequestFutureTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List< String > succeeded = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void resultIsHandedToOnSuccess() throws Exception {
+        RequestFuture< String > request = start( Duration.ofMinutes( 1 ), () -> "answer" );
+
+        assertEquals( "answer", request.get( 5, TimeUnit.SECONDS ) );
+        awaitSucceeded( 1 );
+        assertEquals( List.of( "answer" ), succeeded );
+    }
+
+    @Test
+    void cancellationAbortsTheWorkAndDiscardsItsResult() throws Exception {
+        CountDownLatch started = new CountDownLatch( 1 );
+        AtomicInteger hooks = new AtomicInteger();
+        RequestFuture< String > request = start( Duration.ofMinutes( 1 ), () -> {
+            RequestContext.current().onCancel( hooks::incrementAndGet );
+            started.countDown();
+            Thread.sleep( TimeUnit.MINUTES.toMillis( 1 ) );
+            return "answer";
+        } );
+        assertTrue( started.await( 5, TimeUnit.SECONDS ) );
+
+        assertTrue( request.cancel( true ) );
+
+        CancellationException cancellation = assertThrows( CancellationException.class, request::get );
+        assertEquals( "Request cancelled", cancellation.getMessage() );
+        assertFalse( request.isExpired() );
+        assertEquals( 1, hooks.get() );
+        assertTrue( succeeded.isEmpty() );
+    }
+
+    @Test
+    void deadlineExpiresTheRequest() throws Exception {
+        AtomicInteger hooks = new AtomicInteger();
+        RequestFuture< String > request = start( Duration.ofMillis( 50 ), () -> {
+            RequestContext.current().onCancel( hooks::incrementAndGet );
+            Thread.sleep( TimeUnit.MINUTES.toMillis( 1 ) );
+            return "answer";
+        } );
+
+        CancellationException cancellation = assertThrows( CancellationException.class, () -> request.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( "Request deadline of 50ms exceeded", cancellation.getMessage() );
+        assertTrue( request.isExpired() );
+        assertEquals( 1, hooks.get() );
+        assertTrue( succeeded.isEmpty() );
+    }
+
+    @Test
+    void finishedRequestCannotBeCancelled() throws Exception {
+        RequestFuture< String > request = start( Duration.ofMinutes( 1 ), () -> "answer" );
+        request.get( 5, TimeUnit.SECONDS );
+
+        assertFalse( request.cancel( true ) );
+        assertEquals( "answer", request.get() );
+        awaitSucceeded( 1 );
+    }
+
+    private RequestFuture< String > start( Duration timeout, Callable< String > work ) {
+        RequestFuture< String > request = new RequestFuture<>( new RequestContext( timeout ), work, succeeded::add );
+        request.scheduleExpiry( scheduler );
+        executor.execute( request );
+        return request;
+    }
+
+    /**
+     * Waits for onSuccess, which runs on the worker thread just after the result is published.
+     */
+    private void awaitSucceeded( int count ) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 5 );
+        while ( succeeded.size() < count ) {
+            if ( System.nanoTime() > deadline ) throw new AssertionError( "onSuccess never ran" );
+            Thread.sleep( 1 );
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.jareid.openaiapp.api.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.jareid.openaiapp.api.RequestContext;
+import com.jareid.openaiapp.api.backend.BackendStats.CircuitState;
+import com.theokanning.openai.OpenAiError;
+import com.theokanning.openai.OpenAiHttpException;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatCompletionResult;
+
+/**
+ * Tests for {@link BackendRouter}, using fake backends in place of HTTP endpoints.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class BackendRouterTest {
+    private final List< String > progress = new ArrayList<>();
+
+    @Test
+    void firstConfiguredBackendIsTriedFirst() {
+        ChatCompletionResult answer = new ChatCompletionResult();
+        FakeBackend first = new FakeBackend( "first", request -> answer );
+        FakeBackend second = new FakeBackend( "second", request -> new ChatCompletionResult() );
+
+        assertSame( answer, route( request(), first, second ) );
+        assertEquals( 1, first.calls );
+        assertEquals( 0, second.calls );
+        assertTrue( progress.isEmpty() );
+    }
+
+    @Test
+    void badRequestFailsOverWithoutOpeningTheCircuit() {
+        ChatCompletionResult answer = new ChatCompletionResult();
+        FakeBackend first = new FakeBackend( "first", request -> { throw badRequest(); } );
+        FakeBackend second = new FakeBackend( "second", request -> answer );
+
+        assertSame( answer, route( request(), first, second ) );
+        assertEquals( CircuitState.CLOSED, first.getStats().getState() );
+        assertEquals( List.of( "Backend first failed (context length exceeded), failing over to second" ), progress );
+    }
+
+    @Test
+    void failureFailsOverAndCountsAgainstTheBackend() {
+        ChatCompletionResult answer = new ChatCompletionResult();
+        FakeBackend first = new FakeBackend( "first", request -> { throw new IllegalStateException( "connection refused" ); } );
+        FakeBackend second = new FakeBackend( "second", request -> answer );
+
+        assertSame( answer, route( request(), first, second ) );
+        assertEquals( CircuitState.OPEN, first.getStats().getState() );
+    }
+
+    @Test
+    void lastFailureIsThrownWithoutAFailoverMessage() {
+        IllegalStateException lastFailure = new IllegalStateException( "second down" );
+        FakeBackend first = new FakeBackend( "first", request -> { throw new IllegalStateException( "first down" ); } );
+        FakeBackend second = new FakeBackend( "second", request -> { throw lastFailure; } );
+
+        assertSame( lastFailure, assertThrows( IllegalStateException.class, () -> route( request(), first, second ) ) );
+        assertEquals( List.of( "Backend first failed (first down), failing over to second" ), progress );
+    }
+
+    @Test
+    void openCircuitsAreSkipped() {
+        ChatCompletionResult answer = new ChatCompletionResult();
+        FakeBackend first = new FakeBackend( "first", request -> new ChatCompletionResult() );
+        FakeBackend second = new FakeBackend( "second", request -> answer );
+        first.getStats().recordFailure( 0L );
+
+        assertSame( answer, route( request(), first, second ) );
+        assertEquals( 0, first.calls );
+        assertTrue( progress.isEmpty() );
+    }
+
+    @Test
+    void allCircuitsOpenIsReported() {
+        FakeBackend first = new FakeBackend( "first", request -> new ChatCompletionResult() );
+        FakeBackend second = new FakeBackend( "second", request -> new ChatCompletionResult() );
+        first.getStats().recordFailure( 0L );
+        second.getStats().recordFailure( 0L );
+
+        assertThrows( IllegalStateException.class, () -> route( request(), first, second ) );
+        assertEquals( 0, first.calls + second.calls );
+    }
+
+    @Test
+    void ownCancellationReleasesTheBackendWithoutFailingOver() {
+        RequestContext context = new RequestContext( Duration.ofMinutes( 1 ) );
+        FakeBackend first = new FakeBackend( "first", new BackendStats( 1, Duration.ZERO, Duration.ZERO ), request -> {
+            context.cancel();
+            throw new IllegalStateException( "Canceled" );
+        } );
+        FakeBackend second = new FakeBackend( "second", request -> new ChatCompletionResult() );
+        first.getStats().recordFailure( 0L );   // Opened, so that the next request is the half-open probe
+
+        assertThrows( CancellationException.class, () -> context.call( () -> route( request(), first, second ) ) );
+
+        assertEquals( 1, first.calls );
+        assertEquals( 0, second.calls );
+        assertEquals( CircuitState.HALF_OPEN, first.getStats().getState() );
+        assertTrue( first.getStats().tryAcquire() );   // The probe permit was released
+    }
+
+    @Test
+    void cancelledRequestTriesNoBackend() {
+        RequestContext context = new RequestContext( Duration.ofMinutes( 1 ) );
+        FakeBackend first = new FakeBackend( "first", request -> new ChatCompletionResult() );
+        context.cancel();
+
+        assertThrows( CancellationException.class, () -> context.call( () -> route( request(), first ) ) );
+        assertEquals( 0, first.calls );
+    }
+
+    @Test
+    void modelIsResolvedPerBackendAndRestored() {
+        ChatCompletionRequest request = request();
+        FakeBackend first = new FakeBackend( "first", "llama3", Map.of(), expectingModel( "llama3", () -> { throw badRequest(); } ) );
+        FakeBackend second = new FakeBackend( "second", null, Map.of( "gpt-4", "gpt-4o" ), expectingModel( "gpt-4o", ChatCompletionResult::new ) );
+
+        route( request, first, second );
+
+        assertEquals( "gpt-4", request.getModel() );
+        assertEquals( 1, first.calls );
+        assertEquals( 1, second.calls );
+    }
+
+    @Test
+    void modelIsRestoredWhenEveryBackendFails() {
+        ChatCompletionRequest request = request();
+        FakeBackend only = new FakeBackend( "only", "llama3", Map.of(), expectingModel( "llama3", () -> { throw new IllegalStateException( "down" ); } ) );
+
+        assertThrows( IllegalStateException.class, () -> route( request, only ) );
+        assertEquals( "gpt-4", request.getModel() );
+    }
+
+    private ChatCompletionResult route( ChatCompletionRequest request, CompletionBackend... backends ) {
+        return new BackendRouter( List.of( backends ) ).createChatCompletion( request, progress::add );
+    }
+
+    private static ChatCompletionRequest request() {
+        return ChatCompletionRequest.builder().model( "gpt-4" ).build();
+    }
+
+    /**
+     * Returns a backend behaviour which checks that the request carries the expected model.
+     */
+    private static Function< ChatCompletionRequest, ChatCompletionResult > expectingModel( String expectedModel,
+                                                                                            Supplier< ChatCompletionResult > answer ) {
+        return request -> {
+            assertEquals( expectedModel, request.getModel() );
+            return answer.get();
+        };
+    }
+
+    private static OpenAiHttpException badRequest() {
+        return new OpenAiHttpException( new OpenAiError( new OpenAiError.OpenAiErrorDetails( "context length exceeded",
+                                                                                            "invalid_request_error", null, null ) ),
+                                        null, 400 );
+    }
+
+    /**
+     * A backend answering with the given behaviour instead of an HTTP call.
+     */
+    private static class FakeBackend extends CompletionBackend {
+        private final Function< ChatCompletionRequest, ChatCompletionResult > behaviour;
+        private int calls = 0;
+
+        FakeBackend( String name, Function< ChatCompletionRequest, ChatCompletionResult > behaviour ) {
+            this( name, new BackendStats( 1, Duration.ofMinutes( 1 ), Duration.ZERO ), behaviour );
+        }
+
+        FakeBackend( String name, BackendStats stats, Function< ChatCompletionRequest, ChatCompletionResult > behaviour ) {
+            super( name, "http://" + name + "/", null, Map.of(), null, stats );
+            this.behaviour = behaviour;
+        }
+
+        FakeBackend( String name, String defaultModel, Map< String, String > modelMapping,
+                     Function< ChatCompletionRequest, ChatCompletionResult > behaviour ) {
+            super( name, "http://" + name + "/", defaultModel, modelMapping, null,
+                   new BackendStats( 1, Duration.ofMinutes( 1 ), Duration.ZERO ) );
+            this.behaviour = behaviour;
+        }
+
+        @Override
+        public ChatCompletionResult createChatCompletion( ChatCompletionRequest request ) {
+            calls++;
+            return behaviour.apply( request );
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.jareid.openaiapp.api.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.jareid.openaiapp.api.backend.BackendStats.CircuitState;
+
+/**
+ * Tests for {@link BackendStats}.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class BackendStatsTest {
+    private static final long SECOND = Duration.ofSeconds( 1 ).toNanos();
+
+    @Test
+    void circuitOpensAfterConsecutiveFailures() {
+        BackendStats stats = new BackendStats( 3, Duration.ofMinutes( 1 ), Duration.ZERO );
+
+        for ( int i = 0; i < 2; i++ ) {
+            assertTrue( stats.tryAcquire() );
+            stats.recordFailure( SECOND );
+        }
+        assertEquals( CircuitState.CLOSED, stats.getState() );
+
+        assertTrue( stats.tryAcquire() );
+        stats.recordFailure( SECOND );
+        assertEquals( CircuitState.OPEN, stats.getState() );
+        assertFalse( stats.tryAcquire() );
+    }
+
+    @Test
+    void successResetsTheConsecutiveFailures() {
+        BackendStats stats = new BackendStats( 2, Duration.ofMinutes( 1 ), Duration.ZERO );
+
+        stats.recordFailure( SECOND );
+        stats.recordSuccess( SECOND );
+        stats.recordFailure( SECOND );
+
+        assertEquals( CircuitState.CLOSED, stats.getState() );
+    }
+
+    @Test
+    void halfOpenCircuitLetsOneProbeThrough() {
+        BackendStats stats = new BackendStats( 1, Duration.ZERO, Duration.ZERO );
+        stats.recordFailure( SECOND );
+        assertEquals( CircuitState.OPEN, stats.getState() );
+
+        assertTrue( stats.tryAcquire() );
+        assertEquals( CircuitState.HALF_OPEN, stats.getState() );
+        assertFalse( stats.tryAcquire() );
+
+        stats.recordSuccess( SECOND );
+        assertEquals( CircuitState.CLOSED, stats.getState() );
+        assertTrue( stats.tryAcquire() );
+    }
+
+    @Test
+    void failedProbeReopensTheCircuit() {
+        BackendStats stats = new BackendStats( 5, Duration.ZERO, Duration.ZERO );
+        for ( int i = 0; i < 5; i++ ) stats.recordFailure( SECOND );
+
+        assertTrue( stats.tryAcquire() );
+        stats.recordFailure( SECOND );
+
+        assertEquals( CircuitState.OPEN, stats.getState() );
+    }
+
+    @Test
+    void releasedProbeLetsAnotherThrough() {
+        BackendStats stats = new BackendStats( 1, Duration.ZERO, Duration.ZERO );
+        stats.recordFailure( SECOND );
+
+        assertTrue( stats.tryAcquire() );
+        stats.release();
+
+        assertTrue( stats.tryAcquire() );
+    }
+
+    @Test
+    void rejectionsLeaveTheCircuitClosed() {
+        BackendStats stats = new BackendStats( 1, Duration.ofMinutes( 1 ), Duration.ZERO );
+
+        for ( int i = 0; i < 3; i++ ) stats.recordRejection( SECOND );
+
+        assertEquals( CircuitState.CLOSED, stats.getState() );
+        assertTrue( stats.tryAcquire() );
+    }
+
+    @Test
+    void firstSampleSetsTheLatency() {
+        BackendStats stats = new BackendStats( 1, Duration.ofMinutes( 1 ), Duration.ZERO );
+
+        stats.recordSuccess( 2 * SECOND );
+
+        assertEquals( 2.0 * SECOND, stats.score(), 1.0 );
+    }
+
+    @Test
+    void fastFailuresScoreWorseThanSlowSuccesses() {
+        BackendStats failing = new BackendStats( 100, Duration.ofMinutes( 1 ), Duration.ofSeconds( 30 ) );
+        BackendStats slow = new BackendStats( 100, Duration.ofMinutes( 1 ), Duration.ofSeconds( 30 ) );
+
+        for ( int i = 0; i < 5; i++ ) {
+            failing.recordFailure( 1_000_000L );    // Connection refused after a millisecond
+            slow.recordSuccess( 10 * SECOND );
+        }
+
+        assertTrue( failing.score() > slow.score() );
+    }
+
+    @Test
+    void rejectionsAreChargedOnlyTheirOwnLatency() {
+        BackendStats stats = new BackendStats( 1, Duration.ofMinutes( 1 ), Duration.ofSeconds( 30 ) );
+
+        stats.recordRejection( SECOND );
+
+        assertEquals( SECOND, stats.score(), SECOND / 100.0 );
+    }
+
+    @Test
+    void rejectionKeepsAFastBackendAheadOfASlowOne() {
+        BackendStats local = new BackendStats( 3, Duration.ofMinutes( 1 ), Duration.ofSeconds( 60 ) );
+        BackendStats remote = new BackendStats( 3, Duration.ofMinutes( 1 ), Duration.ofSeconds( 60 ) );
+        for ( int i = 0; i < 10; i++ ) {
+            local.recordSuccess( SECOND / 2 );
+            remote.recordSuccess( 2 * SECOND );
+        }
+
+        local.recordRejection( SECOND / 2 );   // One prompt too large for the local model
+
+        assertTrue( local.score() < remote.score() );
+    }
+
+    @Test
+    void failurePenaltyFadesWithTime() {
+        FakeClock clock = new FakeClock();
+        BackendStats stats = new BackendStats( 3, Duration.ofMinutes( 1 ), Duration.ofSeconds( 60 ),
+                                               Duration.ofMinutes( 1 ), Duration.ofMinutes( 5 ), clock );
+        stats.recordSuccess( SECOND / 2 );
+        stats.recordFailure( SECOND );
+        double penalised = stats.score();
+
+        clock.advance( Duration.ofMinutes( 1 ) );
+        double afterOneHalfLife = stats.score();
+        clock.advance( Duration.ofMinutes( 9 ) );
+
+        assertEquals( SECOND / 2 + ( penalised - SECOND / 2 ) / 2, afterOneHalfLife, SECOND / 100.0 );
+        assertEquals( SECOND / 2, stats.score(), SECOND / 10.0 );
+    }
+
+    @Test
+    void demotedBackendWinsItsPlaceBackWithoutBeingTried() {
+        FakeClock clock = new FakeClock();
+        BackendStats local = new BackendStats( 3, Duration.ofMinutes( 1 ), Duration.ofSeconds( 60 ),
+                                               Duration.ofMinutes( 1 ), Duration.ofMinutes( 5 ), clock );
+        BackendStats remote = new BackendStats( 3, Duration.ofMinutes( 1 ), Duration.ofSeconds( 60 ),
+                                                Duration.ofMinutes( 1 ), Duration.ofMinutes( 5 ), clock );
+        local.recordSuccess( SECOND / 2 );
+        remote.recordSuccess( 2 * SECOND );
+
+        local.recordFailure( SECOND );   // A single timeout or dropped connection
+        assertTrue( local.score() > remote.score() );
+
+        for ( int i = 0; i < 100; i++ ) {
+            clock.advance( Duration.ofSeconds( 3 ) );
+            remote.recordSuccess( 2 * SECOND );
+        }
+        assertTrue( local.score() < remote.score() );
+    }
+
+    @Test
+    void unusedBackendIsDueForOneProbePerInterval() {
+        FakeClock clock = new FakeClock();
+        BackendStats stats = new BackendStats( 3, Duration.ofMinutes( 1 ), Duration.ofSeconds( 60 ),
+                                               Duration.ofMinutes( 1 ), Duration.ofMinutes( 5 ), clock );
+        stats.recordSuccess( SECOND );
+
+        clock.advance( Duration.ofMinutes( 4 ) );
+        assertFalse( stats.claimProbe() );
+
+        clock.advance( Duration.ofMinutes( 1 ) );
+        assertTrue( stats.claimProbe() );
+        assertFalse( stats.claimProbe() );
+    }
+
+    @Test
+    void openCircuitIsNotProbedEarly() {
+        FakeClock clock = new FakeClock();
+        BackendStats stats = new BackendStats( 1, Duration.ofMinutes( 10 ), Duration.ofSeconds( 60 ),
+                                               Duration.ofMinutes( 1 ), Duration.ofMinutes( 5 ), clock );
+        stats.recordFailure( SECOND );
+
+        clock.advance( Duration.ofMinutes( 6 ) );
+
+        assertFalse( stats.claimProbe() );
+        assertFalse( stats.tryAcquire() );
+    }
+
+    @Test
+    void failureThresholdMustBePositive() {
+        assertThrows( IllegalArgumentException.class, () -> new BackendStats( 0, Duration.ZERO, Duration.ZERO ) );
+    }
+
+    /**
+     * A clock which only moves when told to.
+     */
+    private static class FakeClock implements LongSupplier {
+        private long nanos = 0L;
+
+        @Override
+        public long getAsLong() {
+            return nanos;
+        }
+
+        void advance( Duration duration ) {
+            nanos += duration.toNanos();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.jareid.openaiapp.api.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.jareid.openaiapp.api.RequestContext;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+
+/**
+ * Tests for {@link DeadlineInterceptor}, using a fake OkHttp chain in place of a real HTTP call.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class DeadlineInterceptorTest {
+    private static final int CLIENT_TIMEOUT_MILLIS = 60_000;
+
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor();
+    private final AtomicInteger cancelledCalls = new AtomicInteger();
+    private final AtomicInteger proceeded = new AtomicInteger();
+    private final Map< String, Integer > timeouts = new HashMap<>();
+
+    /** Runs while the fake HTTP call is in progress. */
+    private Runnable duringCall = () -> { };
+
+    @Test
+    void callOutsideARequestIsUntouched() throws IOException {
+        interceptor.intercept( chain() );
+
+        assertEquals( 1, proceeded.get() );
+        assertTrue( timeouts.isEmpty() );
+    }
+
+    @Test
+    void timeoutsAreShortenedToTheDeadline() throws Exception {
+        RequestContext context = new RequestContext( Duration.ofSeconds( 2 ) );
+
+        context.call( () -> interceptor.intercept( chain() ) );
+
+        assertEquals( 1, proceeded.get() );
+        assertEquals( 3, timeouts.size() );
+        timeouts.values().forEach( timeout -> assertTrue( timeout > 0 && timeout <= 2_000 ) );
+    }
+
+    @Test
+    void cancellingTheRequestCancelsTheCall() throws Exception {
+        RequestContext context = new RequestContext( Duration.ofMinutes( 1 ) );
+        duringCall = context::cancel;   // Cancelled by the user while the response is awaited
+
+        context.call( () -> interceptor.intercept( chain() ) );
+
+        assertEquals( 1, cancelledCalls.get() );
+    }
+
+    @Test
+    void finishedCallIsNoLongerCancelled() throws Exception {
+        RequestContext context = new RequestContext( Duration.ofMinutes( 1 ) );
+
+        context.call( () -> interceptor.intercept( chain() ) );
+        context.cancel();
+
+        assertEquals( 0, cancelledCalls.get() );
+    }
+
+    @Test
+    void cancelledRequestMakesNoCall() {
+        RequestContext context = new RequestContext( Duration.ofMinutes( 1 ) );
+        context.cancel();
+
+        InterruptedIOException failure = assertThrows( InterruptedIOException.class,
+                                                        () -> context.call( () -> interceptor.intercept( chain() ) ) );
+        assertEquals( "Request cancelled", failure.getMessage() );
+        assertEquals( 0, proceeded.get() );
+    }
+
+    /**
+     * Creates a chain which records the timeouts set on it and the cancellation of its call.
+     * Proxies are used as the OkHttp interfaces have more methods than these tests need.
+     */
+    private Interceptor.Chain chain() {
+        Call call = (Call) Proxy.newProxyInstance( Call.class.getClassLoader(), new Class< ? >[] { Call.class },
+                                                   ( proxy, method, args ) -> {
+                                                       if ( method.getName().equals( "cancel" ) ) cancelledCalls.incrementAndGet();
+                                                       return null;
+                                                   } );
+        return (Interceptor.Chain) Proxy.newProxyInstance( Interceptor.Chain.class.getClassLoader(), new Class< ? >[] { Interceptor.Chain.class },
+                                                           ( proxy, method, args ) -> invokeChain( proxy, method, args, call ) );
+    }
+
+    private Object invokeChain( Object chain, Method method, Object[] args, Call call ) {
+        switch ( method.getName() ) {
+            case "call":
+                return call;
+            case "proceed":
+                proceeded.incrementAndGet();
+                duringCall.run();
+                return null;
+            case "connectTimeoutMillis":
+            case "readTimeoutMillis":
+            case "writeTimeoutMillis":
+                return CLIENT_TIMEOUT_MILLIS;
+            case "withConnectTimeout":
+            case "withReadTimeout":
+            case "withWriteTimeout":
+                timeouts.put( method.getName(), (int) ( (TimeUnit) args[ 1 ] ).toMillis( (Integer) args[ 0 ] ) );
+                return chain;
+            default:
+                return null;
+        }
+    }
+}
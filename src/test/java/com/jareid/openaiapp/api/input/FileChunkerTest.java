@@ -0,0 +1,145 @@
+package com.jareid.openaiapp.api.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link FileChunker}.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class FileChunkerTest {
+    /** 100 tokens, i.e. chunks of at most 400 characters. */
+    private static final int MAX_TOKENS = 100;
+    private static final int MAX_CHARS = MAX_TOKENS * FileChunker.CHARS_PER_TOKEN;
+
+    private final FileChunker chunker = new FileChunker( MAX_TOKENS );
+
+    @Test
+    void chunksFitTheLimitAndKeepAllText() {
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0; i < 500; i++ ) text.append( "Line " ).append( i ).append( " of the file.\n" );
+
+        List< String > chunks = split( text.toString() );
+
+        assertTrue( chunks.size() > 1 );
+        chunks.forEach( chunk -> assertTrue( chunk.length() <= MAX_CHARS ) );
+        assertEquals( text.toString(), String.join( "", chunks ) );
+    }
+
+    @Test
+    void chunksEndAtLineBreaks() {
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0; i < 500; i++ ) text.append( "Line " ).append( i ).append( " of the file.\n" );
+
+        for ( String chunk : split( text.toString() ) ) assertTrue( chunk.endsWith( "\n" ) );
+    }
+
+    @Test
+    void blankLinesArePreferredOverLineBreaks() {
+        String paragraph = "word word word word word word word word word word word word\n".repeat( 4 );
+        String text = ( paragraph + "\n" ).repeat( 10 );
+
+        for ( String chunk : split( text ) ) assertTrue( chunk.endsWith( "\n\n" ) );
+    }
+
+    @Test
+    void blankLinesArePreferredWithWindowsLineEndings() {
+        String paragraph = "word word word word word word word word word word word word\r\n".repeat( 4 );
+        String text = ( paragraph + "\r\n" ).repeat( 10 );
+
+        List< String > chunks = split( text );
+
+        assertTrue( chunks.size() > 1 );
+        for ( String chunk : chunks ) assertTrue( chunk.endsWith( "\r\n\r\n" ) );
+        assertEquals( text, String.join( "", chunks ) );
+    }
+
+    @Test
+    void textWithoutWhitespaceIsCutAtTheLimit() {
+        String text = "x".repeat( MAX_CHARS * 2 + 10 );
+
+        List< String > chunks = split( text );
+
+        assertEquals( List.of( MAX_CHARS, MAX_CHARS, 10 ), lengths( chunks ) );
+    }
+
+    @Test
+    void surrogatePairsAreNeverSplit() {
+        // One character before each emoji puts a pair across every boundary of the window
+        String text = "a" + "\uD83D\uDE00".repeat( MAX_CHARS );
+
+        List< String > chunks = split( text );
+
+        assertTrue( chunks.size() > 1 );
+        for ( String chunk : chunks ) {
+            assertFalse( Character.isHighSurrogate( chunk.charAt( chunk.length() - 1 ) ) );
+            assertFalse( Character.isLowSurrogate( chunk.charAt( 0 ) ) );
+        }
+        assertEquals( text, String.join( "", chunks ) );
+    }
+
+    @Test
+    void blankChunksAreLeftOut() {
+        assertTrue( split( "" ).isEmpty() );
+        assertTrue( split( " \n\n \n".repeat( MAX_CHARS ) ).isEmpty() );
+    }
+
+    @Test
+    void exhaustedIteratorThrows() {
+        Iterator< String > chunks = chunker.split( encode( "short" ) );
+
+        assertEquals( "short", chunks.next() );
+        assertFalse( chunks.hasNext() );
+        assertThrows( NoSuchElementException.class, chunks::next );
+    }
+
+    @Test
+    void filesAreReadThroughTheMapping() throws IOException {
+        Path file = Files.createTempFile( "chunker", ".txt" );
+        try {
+            String text = "Ein Absatz mit Umlauten: \u00e4\u00f6\u00fc \u00df.\n\n".repeat( 100 );
+            Files.writeString( file, text );
+
+            List< String > chunks = new ArrayList<>();
+            chunker.split( file ).forEachRemaining( chunks::add );
+
+            assertTrue( chunks.size() > 1 );
+            assertEquals( text, String.join( "", chunks ) );
+        } finally {
+            Files.deleteIfExists( file );
+        }
+    }
+
+    private List< String > split( String text ) {
+        List< String > chunks = new ArrayList<>();
+        chunker.split( encode( text ) ).forEachRemaining( chunks::add );
+        return chunks;
+    }
+
+    private static List< Integer > lengths( List< String > chunks ) {
+        List< Integer > lengths = new ArrayList<>();
+        for ( String chunk : chunks ) lengths.add( chunk.length() );
+        return lengths;
+    }
+
+    private static ByteBuffer encode( String text ) {
+        return ByteBuffer.wrap( text.getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
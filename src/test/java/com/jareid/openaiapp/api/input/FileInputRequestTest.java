@@ -0,0 +1,80 @@
+package com.jareid.openaiapp.api.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link FileInputRequest}.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class FileInputRequestTest {
+    private final Path file;
+
+    FileInputRequestTest() throws IOException {
+        file = Files.createTempFile( "input", ".log" );
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists( file );
+    }
+
+    @Test
+    void existingFileIsAskedAbout() throws FileNotFoundException {
+        FileInputRequest request = FileInputRequest.parse( "@" + file + " Why did the service restart?" );
+
+        assertEquals( file, request.getPath() );
+        assertEquals( "Why did the service restart?", request.getQuestion() );
+    }
+
+    @Test
+    void summaryIsAskedForWithoutAQuestion() throws FileNotFoundException {
+        assertEquals( "Summarise the content of this file.", FileInputRequest.parse( "@" + file ).getQuestion() );
+    }
+
+    @Test
+    void formattedInputIsParsedBack() throws FileNotFoundException {
+        FileInputRequest request = FileInputRequest.parse( FileInputRequest.format( file.toString(), "What failed?" ) );
+
+        assertEquals( file, request.getPath() );
+        assertEquals( "What failed?", request.getQuestion() );
+    }
+
+    @Test
+    void inputStartingWithAtWhichNamesNoFileIsChat() throws FileNotFoundException {
+        for ( String chat : new String[] { "@Override public String toString() { return name; }", "@alice what do you think?",
+                                           "@ hello", "@", "hello @" + file } ) {
+            assertFalse( FileInputRequest.isFileRequest( chat ), chat );
+            assertNull( FileInputRequest.parse( chat ), chat );
+        }
+    }
+
+    @Test
+    void missingQuotedFileIsReported() {
+        String input = "@\"" + file + ".missing\" What is in it?";
+
+        assertTrue( FileInputRequest.isFileRequest( input ) );
+        FileNotFoundException failure = assertThrows( FileNotFoundException.class, () -> FileInputRequest.parse( input ) );
+        assertEquals( "File not found: " + file + ".missing", failure.getMessage() );
+    }
+
+    @Test
+    void directoryIsNotAFile() {
+        assertFalse( FileInputRequest.isFileRequest( "@" + file.getParent() ) );
+        assertThrows( FileNotFoundException.class, () -> FileInputRequest.parse( FileInputRequest.format( file.getParent().toString(), "" ) ) );
+    }
+}
@@ -0,0 +1,133 @@
+package com.jareid.openaiapp.api.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MapReduceProcessor}, using a fake model in place of the GPT model.
+ *
+ * @author Jamie Reid
+ * @version Last updated: 2026-10-18, Version 0.0.5
+ * @since 2026-10-18
+ */
+class MapReduceProcessorTest {
+    /** 100 tokens, i.e. reduce requests of about 400 characters. */
+    private static final int MAX_TOKENS = 100;
+    private static final int CONCURRENCY = 3;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool( CONCURRENCY );
+    private final List< String > prompts = Collections.synchronizedList( new ArrayList<>() );
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void singleChunkIsAskedAboutDirectly() throws Exception {
+        String answer = processor( prompt -> "the answer" ).process( "notes.txt", List.of( "the content" ).iterator(), "What is it?" );
+
+        assertEquals( "the answer", answer );
+        assertEquals( 1, prompts.size() );
+        assertTrue( prompts.get( 0 ).contains( "the content" ) );
+        assertTrue( prompts.get( 0 ).contains( "What is it?" ) );
+    }
+
+    @Test
+    void partialAnswersAreReducedInPartOrder() throws Exception {
+        MapReduceProcessor processor = processor( prompt -> prompt.startsWith( "The following is part" )
+                                                            ? "answer " + prompt.charAt( prompt.length() - 1 )
+                                                            : "combined" );
+
+        String answer = processor.process( "notes.txt", List.of( "chunk 1", "chunk 2", "chunk 3" ).iterator(), "What is it?" );
+
+        assertEquals( "combined", answer );
+        assertEquals( 4, prompts.size() );
+        String reducePrompt = prompts.get( 3 );
+        assertTrue( reducePrompt.indexOf( "answer 1" ) < reducePrompt.indexOf( "answer 2" ) );
+        assertTrue( reducePrompt.indexOf( "answer 2" ) < reducePrompt.indexOf( "answer 3" ) );
+    }
+
+    @Test
+    void reduceFinishesWhenEveryAnswerIsTooLongForOneRequest() throws Exception {
+        String longAnswer = "x".repeat( MAX_TOKENS * FileChunker.CHARS_PER_TOKEN * 2 );
+
+        String answer = processor( prompt -> longAnswer ).process( "notes.txt", chunks( 9 ), "What is it?" );
+
+        assertEquals( longAnswer, answer );
+        // Every reduce request combines at least two answers, so 9 answers need at most 8 of them
+        assertTrue( prompts.size() <= 9 + 8 );
+    }
+
+    @Test
+    void chunksAreTakenOnlyAsRequestSlotsFreeUp() throws Exception {
+        AtomicInteger answered = new AtomicInteger();
+        AtomicInteger mostAhead = new AtomicInteger();
+        Iterator< String > source = chunks( 20 );
+        AtomicInteger taken = new AtomicInteger();
+        Iterator< String > counted = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public String next() {
+                mostAhead.accumulateAndGet( taken.incrementAndGet() - answered.get(), Math::max );
+                return source.next();
+            }
+        };
+
+        processor( prompt -> {
+            Thread.sleep( 5 );
+            answered.incrementAndGet();
+            return "answer";
+        } ).process( "notes.txt", counted, "What is it?" );
+
+        assertEquals( 20, taken.get() );
+        assertTrue( mostAhead.get() <= CONCURRENCY );
+    }
+
+    @Test
+    void failedChunkFailsTheWholeRequest() {
+        MapReduceProcessor processor = processor( prompt -> {
+            if ( prompt.contains( "chunk 2" ) ) throw new IllegalStateException( "backend down" );
+            return "answer";
+        } );
+
+        IllegalStateException failure = assertThrows( IllegalStateException.class,
+                                                      () -> processor.process( "notes.txt", chunks( 5 ), "What is it?" ) );
+        assertTrue( failure.getMessage().contains( "backend down" ) );
+    }
+
+    @Test
+    void emptyFileIsRejected() {
+        assertThrows( IllegalArgumentException.class,
+                      () -> processor( prompt -> "answer" ).process( "notes.txt", Collections.emptyIterator(), "What is it?" ) );
+    }
+
+    private MapReduceProcessor processor( MapReduceProcessor.Model model ) {
+        return new MapReduceProcessor( executor, CONCURRENCY, MAX_TOKENS, prompt -> {
+            prompts.add( prompt );
+            return model.ask( prompt );
+        }, message -> { } );
+    }
+
+    private static Iterator< String > chunks( int count ) {
+        List< String > chunks = new ArrayList<>();
+        for ( int i = 1; i <= count; i++ ) chunks.add( "chunk " + i );
+        return chunks.iterator();
+    }
+}